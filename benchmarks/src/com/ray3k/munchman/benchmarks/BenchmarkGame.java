@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.GLOnlyTextureData;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Json;
+import com.ray3k.munchman.Core;
+import com.ray3k.munchman.HeadlessAttachmentLoader;
+import com.ray3k.munchman.ai.AIScheduler;
+import com.ray3k.munchman.levels.SpawnSchedule;
+import com.ray3k.munchman.states.GameState;
+
+/**
+ * A headless {@link Core} with its game state, shared by the benchmarks.
+ * Levels are either the name of a file in the bundled levels folder or
+ * "maze-WIDTHxHEIGHT" for a {@link SyntheticMaze}.
+ */
+public class BenchmarkGame {
+    public final static String MAZE_PREFIX = "maze-";
+    public final static long SEED = 1;
+    private static HeadlessApplication application;
+    private final Core core;
+    private final GameState gameState;
+
+    public BenchmarkGame() {
+        initializeApplication();
+        
+        core = new Core(true);
+        core.create();
+        gameState = (GameState) core.getStateManager().getState("game");
+        gameState.setSelectedCharacter("munch-man");
+        gameState.getAiScheduler().setBudgetMicros(AIScheduler.UNLIMITED);
+    }
+    
+    private synchronized static void initializeApplication() {
+        if (application == null) {
+            HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+            config.renderInterval = -1;
+            application = new HeadlessApplication(new ApplicationAdapter() {}, config);
+        }
+    }
+    
+    /**
+     * Creates the renderers on a {@link NullGL20}, so the CPU side of drawing
+     * can be measured without a GL context. Call before {@link #load()}.
+     */
+    public void enableDrawing() {
+        if (core.getTwoColorPolygonBatch() == null) {
+            initializeGL();
+            core.initRenderers();
+        }
+    }
+    
+    private synchronized static void initializeGL() {
+        if (Gdx.gl == null) {
+            Gdx.gl = Gdx.gl20 = NullGL20.create();
+            HeadlessAttachmentLoader.setTexture(new Texture(new GLOnlyTextureData(1, 1, 0, GL20.GL_RGBA, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE)));
+        }
+    }
+    
+    public void setLevel(String level) {
+        FileHandle fileHandle;
+        if (level.startsWith(MAZE_PREFIX)) {
+            String[] dimensions = level.substring(MAZE_PREFIX.length()).split("x");
+            if (dimensions.length != 2) {
+                throw new GdxRuntimeException("Invalid synthetic maze: " + level);
+            }
+            String[][] values = SyntheticMaze.generate(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), SEED);
+            fileHandle = FileHandle.tempFile(level);
+            fileHandle.file().deleteOnExit();
+            fileHandle.writeString(new Json().toJson(values), false);
+        } else {
+            fileHandle = Gdx.files.local(Core.DATA_PATH + "/levels/" + level);
+        }
+        gameState.setSelectedLevel(fileHandle);
+    }
+    
+    /**
+     * Releases count ghosts at once, shared out between the AIs and skins of
+     * the default waves. 0 restores the level's own schedule.
+     */
+    public void setGhostCount(int count) {
+        if (count <= 0) {
+            gameState.setSpawnSchedule(null);
+        } else {
+            Array<SpawnSchedule.Wave> defaults = SpawnSchedule.DEFAULT.getWaves();
+            Array<SpawnSchedule.Wave> waves = new Array<SpawnSchedule.Wave>();
+            for (int i = 0; i < defaults.size; i++) {
+                int waveCount = count / defaults.size + (i < count % defaults.size ? 1 : 0);
+                if (waveCount > 0) {
+                    waves.add(new SpawnSchedule.Wave(0, waveCount, 0, defaults.get(i).getAi(), defaults.get(i).getSkin()));
+                }
+            }
+            gameState.setSpawnSchedule(new SpawnSchedule(waves));
+        }
+    }
+    
+    /**
+     * Starts the game state on the selected level with the shared random seed.
+     */
+    public GameState load() {
+        MathUtils.random.setSeed(SEED);
+        core.getStateManager().loadState("game");
+        return gameState;
+    }
+
+    public Core getCore() {
+        return core;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+    
+    public void dispose() {
+        core.getStateManager().unloadState();
+        core.dispose();
+    }
+}
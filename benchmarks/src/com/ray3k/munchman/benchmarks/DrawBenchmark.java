@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.munchman.EntityManager;
+import com.ray3k.munchman.states.GameState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Draws the entities of a game that has run for a few seconds, so the ghosts
+ * are out of the pen. The batches sit on a {@link NullGL20}, so this measures
+ * the entity loop, interpolation and vertex generation but not GPU submission.
+ * Scores are per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DrawBenchmark {
+    private final static int TICKS = 500;
+    private final static int FRAMES = 100;
+    
+    @Param({"test.lvl", "maze-63x63", "maze-127x127"})
+    public String level;
+    
+    /**
+     * Ghosts released at the start, or 0 for the level's own schedule.
+     */
+    @Param({"0", "64", "256"})
+    public int ghosts;
+    
+    private BenchmarkGame game;
+    private EntityManager entityManager;
+    private SpriteBatch spriteBatch;
+    private TwoColorPolygonBatch batch;
+    
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        game = new BenchmarkGame();
+        game.setLevel(level);
+        game.setGhostCount(ghosts);
+        game.enableDrawing();
+        
+        GameState gameState = game.load();
+        float delta = game.getCore().getTickDelta();
+        for (int i = 0; i < TICKS; i++) {
+            gameState.act(delta);
+        }
+        
+        entityManager = gameState.getEntityManager();
+        spriteBatch = game.getCore().getSpriteBatch();
+        batch = game.getCore().getTwoColorPolygonBatch();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.dispose();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public int draw() {
+        for (int i = 0; i < FRAMES; i++) {
+            batch.begin();
+            entityManager.draw(spriteBatch, (float) i / FRAMES);
+            batch.end();
+        }
+        return batch.totalRenderCalls;
+    }
+}
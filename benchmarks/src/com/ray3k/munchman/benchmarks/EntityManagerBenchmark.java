@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.benchmarks;
+
+import com.ray3k.munchman.states.GameState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Steps the game state at the fixed update rate from a freshly loaded level,
+ * so every invocation replays the same seeded game. Scores are per tick.
+ * Drawing is measured by {@link DrawBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EntityManagerBenchmark {
+    private final static int TICKS = 1000;
+    
+    @Param({"test.lvl", "maze-63x63", "maze-127x127"})
+    public String level;
+    
+    /**
+     * Ghosts released at the start, or 0 for the level's own schedule.
+     */
+    @Param({"0", "64", "256"})
+    public int ghosts;
+    
+    private BenchmarkGame game;
+    private GameState gameState;
+    
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        game = new BenchmarkGame();
+        game.setLevel(level);
+        game.setGhostCount(ghosts);
+    }
+    
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        gameState = game.load();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.dispose();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public int act() {
+        float delta = game.getCore().getTickDelta();
+        for (int i = 0; i < TICKS; i++) {
+            gameState.act(delta);
+        }
+        return gameState.getScore();
+    }
+}
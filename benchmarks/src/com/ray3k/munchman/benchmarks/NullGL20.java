@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.benchmarks;
+
+import com.badlogic.gdx.graphics.GL20;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * A {@link GL20} that does nothing, so batches and meshes can be created and
+ * flushed without a GL context. Created objects get handle 1, shaders always
+ * compile and link and every other query returns 0.
+ */
+public class NullGL20 implements InvocationHandler {
+    private NullGL20() {
+    }
+    
+    public static GL20 create() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] {GL20.class}, new NullGL20());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Class<?> type = method.getReturnType();
+        Object returnValue = null;
+        
+        if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+            int pname = (Integer) args[1];
+            IntBuffer params = (IntBuffer) args[2];
+            params.put(params.position(), pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? 1 : 0);
+        }
+        
+        if (type == int.class) {
+            returnValue = name.startsWith("glCreate") || name.startsWith("glGen") ? 1 : 0;
+        } else if (type == boolean.class) {
+            returnValue = false;
+        } else if (type == float.class) {
+            returnValue = 0.0f;
+        }
+        
+        return returnValue;
+    }
+}
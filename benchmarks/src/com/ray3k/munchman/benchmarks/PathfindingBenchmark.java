@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import com.ray3k.munchman.ai.AggressiveAI;
+import com.ray3k.munchman.ai.CunningAI;
+import com.ray3k.munchman.entities.GhostEntity;
+import com.ray3k.munchman.entities.PlayerEntity;
+import com.ray3k.munchman.states.GameState;
+import com.ray3k.munchman.states.LevelDesignerState;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xguzm.pathfinding.grid.GridCell;
+
+/**
+ * Path queries between a fixed, seeded set of walkable cell pairs. Each
+ * invocation answers one query and moves on to the next pair.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PathfindingBenchmark {
+    private final static int PAIRS = 1024;
+    
+    @Param({"test.lvl", "maze-63x63", "maze-127x127"})
+    public String level;
+    
+    private BenchmarkGame game;
+    private GameState gameState;
+    private int[] pairs;
+    private int index;
+    private GhostEntity ghost;
+    
+    @Setup
+    public void setup() {
+        game = new BenchmarkGame();
+        game.setLevel(level);
+        gameState = game.load();
+        
+        IntArray walkable = new IntArray();
+        GridCell[][] cells = gameState.getNavCells();
+        for (int x = 0; x < cells.length; x++) {
+            for (int y = 0; y < cells[x].length; y++) {
+                if (gameState.getReachability().isReachable(x, y)) {
+                    walkable.add(x);
+                    walkable.add(y);
+                }
+            }
+        }
+        
+        RandomXS128 random = new RandomXS128(BenchmarkGame.SEED);
+        pairs = new int[PAIRS * 4];
+        for (int i = 0; i < PAIRS; i++) {
+            int from = random.nextInt(walkable.size / 2) * 2;
+            int to = random.nextInt(walkable.size / 2) * 2;
+            pairs[i * 4] = walkable.get(from);
+            pairs[i * 4 + 1] = walkable.get(from + 1);
+            pairs[i * 4 + 2] = walkable.get(to);
+            pairs[i * 4 + 3] = walkable.get(to + 1);
+        }
+        index = 0;
+        
+        ghost = gameState.getGhosts().first();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        game.dispose();
+    }
+    
+    private int next() {
+        int returnValue = index;
+        index = (index + 4) % pairs.length;
+        return returnValue;
+    }
+    
+    private void placeGhost(int x, int y) {
+        ghost.setPosition(x * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f, y * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f);
+    }
+    
+    /**
+     * A full A* search, as the ghosts did every step before the shared
+     * navigation structures.
+     */
+    @Benchmark
+    public List<GridCell> aStarFindPath() {
+        int i = next();
+        return gameState.getNavFinder().findPath(pairs[i], pairs[i + 1], pairs[i + 2], pairs[i + 3], gameState.getNavGrid());
+    }
+    
+    @Benchmark
+    public int findNextDirection() {
+        int i = next();
+        return gameState.findNextDirection(pairs[i], pairs[i + 1], pairs[i + 2], pairs[i + 3]);
+    }
+    
+    /**
+     * Moves the distance field source, forcing a full recompute.
+     */
+    @Benchmark
+    public int distanceFieldUpdate() {
+        int i = next();
+        gameState.getDistanceField().setSource(pairs[i + 2], pairs[i + 3]);
+        return gameState.getDistanceField().getDistance(pairs[i], pairs[i + 1]);
+    }
+    
+    @Benchmark
+    public void aggressiveStep(Blackhole blackhole) {
+        int i = next();
+        gameState.getDistanceField().setSource(pairs[i + 2], pairs[i + 3]);
+        placeGhost(pairs[i], pairs[i + 1]);
+        AggressiveAI.INSTANCE.step(0.0f, ghost, gameState);
+        blackhole.consume(ghost.getDirection());
+    }
+    
+    /**
+     * Includes the player position prediction done before each far away
+     * path query.
+     */
+    @Benchmark
+    public void cunningStep(Blackhole blackhole) {
+        int i = next();
+        gameState.getDistanceField().setSource(pairs[i + 2], pairs[i + 3]);
+        ghost.newGridPointReached(pairs[i + 2], pairs[i + 3], PlayerEntity.Direction.LEFT);
+        placeGhost(pairs[i], pairs[i + 1]);
+        CunningAI.INSTANCE.step(0.0f, ghost, gameState);
+        blackhole.consume(ghost.getDirection());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Generates large levels for benchmarking. Mazes are carved with a seeded
+ * depth first search and then braided so ghosts have more than one route.
+ */
+public class SyntheticMaze {
+    private final static String WALL = "WALLhorizontal";
+    private final static float BRAID_CHANCE = .1f;
+    private final static int MIN_DIMENSION = 15;
+
+    public static String[][] generate(int width, int height, long seed) {
+        if (width < MIN_DIMENSION || height < MIN_DIMENSION) {
+            throw new GdxRuntimeException("Synthetic mazes must be at least " + MIN_DIMENSION + "x" + MIN_DIMENSION);
+        }
+        
+        RandomXS128 random = new RandomXS128(seed);
+        String[][] values = new String[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                values[x][y] = WALL;
+            }
+        }
+        
+        int lastX = (width - 2) % 2 == 1 ? width - 2 : width - 3;
+        int lastY = (height - 2) % 2 == 1 ? height - 2 : height - 3;
+        
+        IntArray stack = new IntArray();
+        int[] neighbors = new int[4];
+        values[1][1] = null;
+        stack.add(1);
+        stack.add(1);
+        while (stack.size > 0) {
+            int y = stack.get(stack.size - 1);
+            int x = stack.get(stack.size - 2);
+            
+            int count = 0;
+            if (x + 2 <= lastX && values[x + 2][y] != null) {
+                neighbors[count++] = 0;
+            }
+            if (x - 2 >= 1 && values[x - 2][y] != null) {
+                neighbors[count++] = 1;
+            }
+            if (y + 2 <= lastY && values[x][y + 2] != null) {
+                neighbors[count++] = 2;
+            }
+            if (y - 2 >= 1 && values[x][y - 2] != null) {
+                neighbors[count++] = 3;
+            }
+            
+            if (count == 0) {
+                stack.size -= 2;
+            } else {
+                int neighbor = neighbors[random.nextInt(count)];
+                int dx = neighbor == 0 ? 1 : neighbor == 1 ? -1 : 0;
+                int dy = neighbor == 2 ? 1 : neighbor == 3 ? -1 : 0;
+                values[x + dx][y + dy] = null;
+                values[x + dx * 2][y + dy * 2] = null;
+                stack.add(x + dx * 2);
+                stack.add(y + dy * 2);
+            }
+        }
+        
+        for (int x = 1; x <= lastX; x++) {
+            for (int y = 1; y <= lastY; y++) {
+                if ((x + y) % 2 == 1 && values[x][y] != null && random.nextFloat() < BRAID_CHANCE) {
+                    values[x][y] = null;
+                }
+            }
+        }
+        
+        int penX = width / 2 - 3;
+        int penY = height / 2 - 2;
+        for (int x = penX - 1; x <= penX + 6; x++) {
+            for (int y = penY - 1; y <= penY + 4; y++) {
+                values[x][y] = null;
+            }
+        }
+        values[penX][penY] = "GHOST_PEN";
+        
+        values[1][1] = "MUNCH_MAN";
+        values[lastX][1] = "BALL";
+        values[1][lastY] = "BALL";
+        values[lastX][lastY] = "BALL";
+        
+        return values;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Uniform grid broad phase for collision boxes. Entities are bucketed into
+ * every cell their box touches, so only entities sharing a cell are tested
+ * against each other. Buckets are pooled and reused between ticks.
+ */
+public class CollisionGrid {
+    private final float cellSize;
+    private final IntMap<Array<Entity>> cells;
+    private final Array<Array<Entity>> usedBuckets;
+    private final Array<Array<Entity>> freeBuckets;
+    private int queryMark;
+
+    public CollisionGrid(float cellSize) {
+        this.cellSize = cellSize;
+        cells = new IntMap<Array<Entity>>();
+        usedBuckets = new Array<Array<Entity>>();
+        freeBuckets = new Array<Array<Entity>>();
+        queryMark = 0;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < usedBuckets.size; i++) {
+            Array<Entity> bucket = usedBuckets.get(i);
+            bucket.clear();
+            freeBuckets.add(bucket);
+        }
+        usedBuckets.clear();
+        cells.clear();
+    }
+    
+    public void insert(Entity entity) {
+        Rectangle box = entity.getCollisionBox();
+        int minX = MathUtils.floor(box.x / cellSize);
+        int minY = MathUtils.floor(box.y / cellSize);
+        int maxX = MathUtils.floor((box.x + box.width) / cellSize);
+        int maxY = MathUtils.floor((box.y + box.height) / cellSize);
+        
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                int key = key(x, y);
+                Array<Entity> bucket = cells.get(key);
+                if (bucket == null) {
+                    bucket = freeBuckets.size > 0 ? freeBuckets.pop() : new Array<Entity>(false, 8);
+                    usedBuckets.add(bucket);
+                    cells.put(key, bucket);
+                }
+                bucket.add(entity);
+            }
+        }
+    }
+    
+    /**
+     * Calls {@link Entity#collision(Entity)} on the entity once for every other
+     * inserted entity whose collision box overlaps its own.
+     */
+    public void collide(Entity entity) {
+        Rectangle box = entity.getCollisionBox();
+        int minX = MathUtils.floor(box.x / cellSize);
+        int minY = MathUtils.floor(box.y / cellSize);
+        int maxX = MathUtils.floor((box.x + box.width) / cellSize);
+        int maxY = MathUtils.floor((box.y + box.height) / cellSize);
+        queryMark++;
+        
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                Array<Entity> bucket = cells.get(key(x, y));
+                if (bucket != null) {
+                    for (int i = 0; i < bucket.size; i++) {
+                        Entity other = bucket.get(i);
+                        if (other != entity && other.collisionMark != queryMark) {
+                            other.collisionMark = queryMark;
+                            if (!entity.isDestroyed() && entity.isCheckingCollisions() && box.overlaps(other.getCollisionBox())) {
+                                entity.collision(other);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private static int key(int x, int y) {
+        return (x & 0xFFFF) << 16 | (y & 0xFFFF);
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+}
@@ -11,11 +11,15 @@ import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.TimeUtils;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonRenderer;
 import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
 import com.ray3k.munchman.SkeletonDataLoader.SkeletonDataLoaderParameter;
+import com.ray3k.munchman.levels.LevelMetadataCache;
+import com.ray3k.munchman.levels.LevelPack;
+import com.ray3k.munchman.levels.LevelPreloader;
 import com.ray3k.munchman.states.CongratulationsState;
 import com.ray3k.munchman.states.GameOverState;
 import com.ray3k.munchman.states.GameState;
@@ -32,25 +36,59 @@ import javax.swing.JOptionPane;
 public class Core extends ApplicationAdapter {
     public final static String VERSION = "1";
     public final static String DATA_PATH = "munch_man_data";
-    private final static long MS_PER_UPDATE = 10;
+    public final static String LEVEL_PACK_PATH = DATA_PATH + "/levels." + LevelPack.EXTENSION;
+    public final static String LEVEL_METADATA_CACHE_PATH = DATA_PATH + "/levels.cache";
+    public final static int DEFAULT_TICKS_PER_SECOND = 100;
+    /**
+     * Updates run per frame at most. Time beyond that is dropped so a slow
+     * frame does not snowball into ever longer catch-up.
+     */
+    public final static int MAX_CATCH_UP_STEPS = 5;
     private AssetManager assetManager;
     private StateManager stateManager;
     private SpriteBatch spriteBatch;
     private PixmapPacker pixmapPacker;
     private long previous;
     private long lag;
+    private long nanosPerTick;
+    private float tickDelta;
     private TextureAtlas atlas;
     private SkeletonRenderer skeletonRenderer;
     private TwoColorPolygonBatch twoColorPolygonBatch;
+    private final boolean headless;
+    private LevelPack levelPack;
+    private boolean levelPackOpened;
+    private LevelMetadataCache levelMetadataCache;
+    private LevelPreloader levelPreloader;
+
+    public Core() {
+        this(false);
+    }
+    
+    /**
+     * @param headless true to run without a GL context. Only the game state is
+     * available, skeletons are loaded without textures and nothing is drawn.
+     */
+    public Core(boolean headless) {
+        this.headless = headless;
+        setTicksPerSecond(DEFAULT_TICKS_PER_SECOND);
+    }
 
     @Override
     public void create() {
+        if (headless) {
+            initManagers();
+            loadAssets();
+            assetManager.finishLoading();
+            return;
+        }
+        
         try {
             initManagers();
 
             loadAssets();
 
-            previous = TimeUtils.millis();
+            previous = TimeUtils.nanoTime();
             lag = 0;
 
             stateManager.loadState("loading");
@@ -87,6 +125,12 @@ public class Core extends ApplicationAdapter {
         assetManager.setLoader(SkeletonData.class, new SkeletonDataLoader(new LocalFileHandleResolver()));
         
         stateManager = new StateManager(this);
+        
+        if (headless) {
+            stateManager.addState("game", new GameState(this));
+            return;
+        }
+        
         stateManager.addState("loading", new LoadingState("menu", this));
         stateManager.addState("menu", new MenuState(this));
         stateManager.addState("game", new GameState(this));
@@ -94,10 +138,17 @@ public class Core extends ApplicationAdapter {
         stateManager.addState("level-designer", new LevelDesignerState(this));
         stateManager.addState("congratulations", new CongratulationsState(this));
         
-        spriteBatch = new SpriteBatch();
-        
         pixmapPacker = new PixmapPacker(1024, 1024, Pixmap.Format.RGBA8888, 5, true, new PixmapPacker.GuillotineStrategy());
         
+        initRenderers();
+    }
+    
+    /**
+     * Creates the batches and skeleton renderer used to draw. Headless cores
+     * skip this, but may call it after installing a GL implementation.
+     */
+    public void initRenderers() {
+        spriteBatch = new SpriteBatch();
         skeletonRenderer = new SkeletonRenderer();
         twoColorPolygonBatch = new TwoColorPolygonBatch(3100);
     }
@@ -105,17 +156,23 @@ public class Core extends ApplicationAdapter {
     @Override
     public void render() {
         try {
-            long current = TimeUtils.millis();
+            long current = TimeUtils.nanoTime();
             long elapsed = current - previous;
             previous = current;
             lag += elapsed;
 
-            while (lag >= MS_PER_UPDATE) {
-                stateManager.act(MS_PER_UPDATE / 1000.0f);
-                lag -= MS_PER_UPDATE;
+            int steps = 0;
+            while (lag >= nanosPerTick && steps < MAX_CATCH_UP_STEPS) {
+                stateManager.act(tickDelta);
+                lag -= nanosPerTick;
+                steps++;
+            }
+            
+            if (lag >= nanosPerTick) {
+                lag %= nanosPerTick;
             }
 
-            stateManager.draw(spriteBatch, lag / MS_PER_UPDATE);
+            stateManager.draw(spriteBatch, (float) lag / nanosPerTick);
         } catch (Exception e) {
             e.printStackTrace();
             
@@ -146,9 +203,17 @@ public class Core extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        if (levelMetadataCache != null) {
+            levelMetadataCache.dispose();
+        }
+        if (levelPreloader != null) {
+            levelPreloader.dispose();
+        }
         assetManager.dispose();
         stateManager.dispose();
-        pixmapPacker.dispose();
+        if (pixmapPacker != null) {
+            pixmapPacker.dispose();
+        }
         if (atlas != null) {
             atlas.dispose();
         }
@@ -156,16 +221,18 @@ public class Core extends ApplicationAdapter {
     
     public void loadAssets() {
         assetManager.clear();
-        SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(DATA_PATH + "/spine/munchman.atlas");
+        SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(headless ? null : DATA_PATH + "/spine/munchman.atlas");
         assetManager.load(DATA_PATH + "/spine/munchman.json", SkeletonData.class, parameter);
         assetManager.load(DATA_PATH + "/spine/ghost.json", SkeletonData.class, parameter);
         assetManager.load(DATA_PATH + "/spine/wall.json", SkeletonData.class, parameter);
         assetManager.load(DATA_PATH + "/spine/ghostpen.json", SkeletonData.class, parameter);
         assetManager.load(DATA_PATH + "/spine/ball.json", SkeletonData.class, parameter);
         
-        assetManager.load(DATA_PATH + "/skin/munch-man-ui.json", Skin.class);
+        if (!headless) {
+            assetManager.load(DATA_PATH + "/skin/munch-man-ui.json", Skin.class);
 
-        assetManager.load(DATA_PATH + "/gfx/white.png", Pixmap.class);
+            assetManager.load(DATA_PATH + "/gfx/white.png", Pixmap.class);
+        }
         
         assetManager.load(DATA_PATH + "/sfx/ball1.wav", Sound.class);
         assetManager.load(DATA_PATH + "/sfx/ball2.wav", Sound.class);
@@ -196,6 +263,10 @@ public class Core extends ApplicationAdapter {
         return stateManager;
     }
 
+    public SpriteBatch getSpriteBatch() {
+        return spriteBatch;
+    }
+
     public PixmapPacker getPixmapPacker() {
         return pixmapPacker;
     }
@@ -215,4 +286,64 @@ public class Core extends ApplicationAdapter {
     public TwoColorPolygonBatch getTwoColorPolygonBatch() {
         return twoColorPolygonBatch;
     }
+
+    /**
+     * Sets how many fixed updates run per second of real time.
+     */
+    public void setTicksPerSecond(int ticksPerSecond) {
+        nanosPerTick = 1000000000L / ticksPerSecond;
+        tickDelta = 1.0f / ticksPerSecond;
+    }
+    
+    public int getTicksPerSecond() {
+        return (int) (1000000000L / nanosPerTick);
+    }
+
+    /**
+     * Returns the time in seconds passed to each update.
+     */
+    public float getTickDelta() {
+        return tickDelta;
+    }
+    
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    /**
+     * Returns the level pack shipped at {@link #LEVEL_PACK_PATH}, mapping it
+     * on first use, or null if there is none or it is corrupt.
+     */
+    public LevelPack getLevelPack() {
+        if (!levelPackOpened) {
+            levelPackOpened = true;
+            FileHandle fileHandle = Gdx.files.local(LEVEL_PACK_PATH);
+            if (fileHandle.exists()) {
+                try {
+                    levelPack = LevelPack.open(fileHandle);
+                } catch (GdxRuntimeException e) {
+                    Gdx.app.error(Core.class.getName(), "Ignoring level pack, using loose level files instead: " + fileHandle.path(), e);
+                }
+            }
+        }
+        return levelPack;
+    }
+    
+    /**
+     * Returns the level metadata cache, loading it from
+     * {@link #LEVEL_METADATA_CACHE_PATH} on first use.
+     */
+    public LevelMetadataCache getLevelMetadataCache() {
+        if (levelMetadataCache == null) {
+            levelMetadataCache = new LevelMetadataCache(Gdx.files.local(LEVEL_METADATA_CACHE_PATH));
+        }
+        return levelMetadataCache;
+    }
+    
+    public LevelPreloader getLevelPreloader() {
+        if (levelPreloader == null) {
+            levelPreloader = new LevelPreloader();
+        }
+        return levelPreloader;
+    }
 }
@@ -25,12 +25,13 @@ package com.ray3k.munchman;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
 public abstract class Entity {
-    private static final Vector2 temp = new Vector2();
     private final Vector2 position;
+    private final Vector2 previousPosition;
     private final Vector2 speed;
     private final Vector2 offset;
     private final Vector2 scale;
@@ -44,9 +45,13 @@ public abstract class Entity {
     private final Rectangle collisionBox;
     private final Vector2 collisionBoxPosition;
     private boolean checkingCollisions;
+    int collisionMark;
+    private KinematicsStore kinematics;
+    private int kinematicsSlot;
 
     public Entity(EntityManager manager, Core core) {
         position = new Vector2();
+        previousPosition = new Vector2();
         speed = new Vector2();
         offset = new Vector2();
         scale = new Vector2();
@@ -75,7 +80,7 @@ public abstract class Entity {
     
     public abstract void act_end(float delta);
     
-    public abstract void draw(SpriteBatch spriteBatch, float delta);
+    public abstract void draw(SpriteBatch spriteBatch, float alpha);
     
     public abstract void destroy();
     
@@ -88,88 +93,207 @@ public abstract class Entity {
         }
     }
 
+    /**
+     * Moves the position and motion of this entity into the manager's
+     * {@link KinematicsStore}, where they are integrated in one loop with the
+     * other packed entities. Meant for entities that exist in large numbers.
+     * The entity is unpacked again when the manager removes it.
+     */
+    protected void packKinematics() {
+        if (kinematics == null) {
+            KinematicsStore store = manager.getKinematics();
+            int slot = store.allocate();
+            store.x[slot] = position.x;
+            store.y[slot] = position.y;
+            store.previousX[slot] = previousPosition.x;
+            store.previousY[slot] = previousPosition.y;
+            store.xSpeed[slot] = speed.x;
+            store.ySpeed[slot] = speed.y;
+            store.gravityX[slot] = gravity.x;
+            store.gravityY[slot] = gravity.y;
+            kinematics = store;
+            kinematicsSlot = slot;
+        }
+    }
+    
+    void unpackKinematics() {
+        if (kinematics != null) {
+            int slot = kinematicsSlot;
+            position.set(kinematics.x[slot], kinematics.y[slot]);
+            previousPosition.set(kinematics.previousX[slot], kinematics.previousY[slot]);
+            speed.set(kinematics.xSpeed[slot], kinematics.ySpeed[slot]);
+            gravity.set(kinematics.gravityX[slot], kinematics.gravityY[slot]);
+            kinematics.free(slot);
+            kinematics = null;
+        }
+    }
+    
+    public boolean isKinematicsPacked() {
+        return kinematics != null;
+    }
+
     public Vector2 getPosition() {
-        return position.cpy();
+        return new Vector2(getX(), getY());
     }
     
     public float getX() {
-        return position.x;
+        return kinematics == null ? position.x : kinematics.x[kinematicsSlot];
     }
     
     public float getY() {
-        return position.y;
+        return kinematics == null ? position.y : kinematics.y[kinematicsSlot];
     }
     
+    /**
+     * Places the entity without interpolating from its old position.
+     */
     public void setPosition(Vector2 position) {
-        this.position.set(position);
+        setPosition(position.x, position.y);
     }
     
+    /**
+     * Places the entity without interpolating from its old position.
+     */
     public void setPosition(float x, float y) {
         setX(x);
         setY(y);
+        if (kinematics == null) {
+            previousPosition.set(x, y);
+        } else {
+            kinematics.previousX[kinematicsSlot] = x;
+            kinematics.previousY[kinematicsSlot] = y;
+        }
+    }
+    
+    /**
+     * Remembers the current position as the one drawn at alpha 0. Called by
+     * {@link EntityManager} before each update of an unpacked entity.
+     */
+    void savePreviousPosition() {
+        previousPosition.set(position);
+    }
+    
+    /**
+     * Returns the x position between the previous and current update.
+     * @param alpha the interpolation factor passed to draw.
+     */
+    public float getInterpolatedX(float alpha) {
+        float returnValue;
+        
+        if (kinematics == null) {
+            returnValue = previousPosition.x + (position.x - previousPosition.x) * alpha;
+        } else {
+            float previousX = kinematics.previousX[kinematicsSlot];
+            returnValue = previousX + (kinematics.x[kinematicsSlot] - previousX) * alpha;
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * Returns the y position between the previous and current update.
+     * @param alpha the interpolation factor passed to draw.
+     */
+    public float getInterpolatedY(float alpha) {
+        float returnValue;
+        
+        if (kinematics == null) {
+            returnValue = previousPosition.y + (position.y - previousPosition.y) * alpha;
+        } else {
+            float previousY = kinematics.previousY[kinematicsSlot];
+            returnValue = previousY + (kinematics.y[kinematicsSlot] - previousY) * alpha;
+        }
+        
+        return returnValue;
     }
     
     public void setX(float x) {
-        this.position.x = x;
+        if (kinematics == null) {
+            this.position.x = x;
+        } else {
+            kinematics.x[kinematicsSlot] = x;
+        }
     }
     
     public void setY(float y) {
-        this.position.y = y;
+        if (kinematics == null) {
+            this.position.y = y;
+        } else {
+            kinematics.y[kinematicsSlot] = y;
+        }
     }
     
     public void addX(float x) {
-        this.position.x += x;
+        setX(getX() + x);
     }
     
     public void addY(float y) {
-        this.position.y += y;
+        setY(getY() + y);
     }
 
     public float getSpeed() {
-        return speed.len();
+        float x = getXspeed();
+        float y = getYspeed();
+        return (float) Math.sqrt(x * x + y * y);
     }
     
     public float getXspeed() {
-        return speed.x;
+        return kinematics == null ? speed.x : kinematics.xSpeed[kinematicsSlot];
     }
     
     public float getYspeed() {
-        return speed.y;
+        return kinematics == null ? speed.y : kinematics.ySpeed[kinematicsSlot];
     }
     
     public void setSpeed(Vector2 speed) {
-        this.speed.set(speed);
+        setXspeed(speed.x);
+        setYspeed(speed.y);
     }
     
     public void setXspeed(float x) {
-        this.speed.x = x;
+        if (kinematics == null) {
+            this.speed.x = x;
+        } else {
+            kinematics.xSpeed[kinematicsSlot] = x;
+        }
     }
     
     public void setYspeed(float y) {
-        this.speed.y = y;
+        if (kinematics == null) {
+            this.speed.y = y;
+        } else {
+            kinematics.ySpeed[kinematicsSlot] = y;
+        }
     }
     
     public void addXspeed(float x) {
-        this.speed.x += x;
+        setXspeed(getXspeed() + x);
     }
     
     public void addYspeed(float y) {
-        this.speed.y += y;
+        setYspeed(getYspeed() + y);
     }
     
     public void setMotion(float speed, float direction) {
-        this.speed.set(speed, 0);
-        this.speed.rotate(direction);
+        float radians = direction * MathUtils.degreesToRadians;
+        setXspeed(speed * (float) Math.cos(radians));
+        setYspeed(speed * (float) Math.sin(radians));
     }
     
     public void addMotion(float speed, float direction) {
-        temp.set(speed, 0);
-        temp.rotate(direction);
-        this.speed.add(temp);
+        float radians = direction * MathUtils.degreesToRadians;
+        addXspeed(speed * (float) Math.cos(radians));
+        addYspeed(speed * (float) Math.sin(radians));
     }
     
     public float getDirection() {
-        return this.speed.angle();
+        float returnValue = (float) Math.atan2(getYspeed(), getXspeed()) * MathUtils.radiansToDegrees;
+        
+        if (returnValue < 0) {
+            returnValue += 360;
+        }
+        
+        return returnValue;
     }
 
     public float getRotation() {
@@ -245,28 +369,37 @@ public abstract class Entity {
     }
     
     public void setGravityX(float gravityX) {
-        gravity.x = gravityX;
+        if (kinematics == null) {
+            gravity.x = gravityX;
+        } else {
+            kinematics.gravityX[kinematicsSlot] = gravityX;
+        }
     }
     
     public void setGravityY(float gravityY) {
-        gravity.y = gravityY;
+        if (kinematics == null) {
+            gravity.y = gravityY;
+        } else {
+            kinematics.gravityY[kinematicsSlot] = gravityY;
+        }
     }
     
     public void setGravity(float speed, float direction) {
-        gravity.set(speed, 0);
-        gravity.rotate(direction);
+        float radians = direction * MathUtils.degreesToRadians;
+        setGravityX(speed * (float) Math.cos(radians));
+        setGravityY(speed * (float) Math.sin(radians));
     }
     
     public float getGravityX() {
-        return gravity.x;
+        return kinematics == null ? gravity.x : kinematics.gravityX[kinematicsSlot];
     }
     
     public float getGravityY() {
-        return gravity.y;
+        return kinematics == null ? gravity.y : kinematics.gravityY[kinematicsSlot];
     }
     
     public Vector2 getGravity() {
-        return gravity.cpy();
+        return new Vector2(getGravityX(), getGravityY());
     }
 
     public int getDepth() {
@@ -274,7 +407,10 @@ public abstract class Entity {
     }
 
     public void setDepth(int depth) {
-        this.depth = depth;
+        if (this.depth != depth) {
+            this.depth = depth;
+            manager.invalidateDrawOrder();
+        }
     }
 
     public Rectangle getCollisionBox() {
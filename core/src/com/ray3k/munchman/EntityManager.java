@@ -26,79 +26,158 @@ package com.ray3k.munchman;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.ray3k.munchman.states.LevelDesignerState;
 import java.util.Comparator;
-import java.util.Iterator;
 
 public class EntityManager {
-    private final Array<Entity> entities;
+    private final static Comparator<Entity> DEPTH_COMPARATOR = new Comparator<Entity>() {
+        @Override
+        public int compare(Entity o1, Entity o2) {
+            return o2.getDepth() - o1.getDepth();
+        }
+    };
+    private final SnapshotArray<Entity> entities;
+    private final CollisionGrid collisionGrid;
+    private final KinematicsStore kinematics;
+    private boolean drawOrderDirty;
     
     public EntityManager() {
-        entities = new Array<Entity>();
+        this(LevelDesignerState.GRID_DIMENSION);
+    }
+    
+    public EntityManager(float collisionCellSize) {
+        entities = new SnapshotArray<Entity>(Entity.class);
+        collisionGrid = new CollisionGrid(collisionCellSize);
+        kinematics = new KinematicsStore();
+        drawOrderDirty = false;
+    }
+    
+    /**
+     * Packed positions and motion, integrated before the entities act. See
+     * {@link Entity#packKinematics()}.
+     */
+    public KinematicsStore getKinematics() {
+        return kinematics;
     }
     
     public void addEntity(Entity entity) {
         entities.add(entity);
+        drawOrderDirty = true;
     }
     
+    /**
+     * Marks the draw order as stale so the entities are sorted by depth again
+     * before the next draw. Called by {@link Entity#setDepth(int)}.
+     */
+    public void invalidateDrawOrder() {
+        drawOrderDirty = true;
+    }
+    
+    /**
+     * Returns a copy of the entity list. Code that runs every tick should keep
+     * its own list instead, like GameState does for ghosts.
+     */
     public Array<Entity> getEntities() {
         return new Array<Entity>(entities);
     }
     
     public void act(float delta) {
-        Iterator<Entity> iter = entities.iterator();
-        while (iter.hasNext()) {
-            Entity entity = iter.next();
+        removeDestroyed();
+        kinematics.integrate(delta);
+        
+        Entity[] items = entities.begin();
+        int size = entities.size;
+        for (int index = 0; index < size; index++) {
+            Entity entity = items[index];
             if (!entity.isDestroyed()) {
-                entity.addXspeed(entity.getGravityX() * delta);
-                entity.addYspeed(entity.getGravityY() * delta);
-                
-                entity.addX(entity.getXspeed() * delta);
-                entity.addY(entity.getYspeed() * delta);
+                if (!entity.isKinematicsPacked()) {
+                    entity.savePreviousPosition();
+                    entity.addXspeed(entity.getGravityX() * delta);
+                    entity.addYspeed(entity.getGravityY() * delta);
+
+                    entity.addX(entity.getXspeed() * delta);
+                    entity.addY(entity.getYspeed() * delta);
+                }
                 
                 entity.getCollisionBox().setPosition(entity.getX() + entity.getCollisionBoxX(), entity.getY() + entity.getCollisionBoxY());
                 entity.act(delta);
-                
-                for (int i = 0; i < entities.size ; i++) {
-                    if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
-                        Entity other = entities.get(i);
-                        if (other.isCheckingCollisions()) {
-                            if (entity.getCollisionBox().overlaps(other.getCollisionBox())) {
-                                entity.collision(other);
-                            }
-                        }
-                    } else {
-                        break;
-                    }
-                }
-            } else {
-                iter.remove();
             }
         }
         
-        iter = entities.iterator();
-        while (iter.hasNext()) {
-            Entity entity = iter.next();
+        collide(items, size);
+        
+        for (int index = 0; index < size; index++) {
+            Entity entity = items[index];
             
-            entity.act_end(delta);
+            if (!entity.isDestroyed()) {
+                entity.act_end(delta);
+            }
         }
+        entities.end();
     }
     
-    public void draw(SpriteBatch spriteBatch, float delta) {
-        entities.sort(new Comparator<Entity>() {
-            @Override
-            public int compare(Entity o1, Entity o2) {
-                return o2.getDepth() - o1.getDepth();
+    private void collide(Entity[] items, int size) {
+        boolean checking = false;
+        for (int i = 0; i < size; i++) {
+            Entity entity = items[i];
+            if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
+                if (!checking) {
+                    collisionGrid.clear();
+                    checking = true;
+                }
+                collisionGrid.insert(entity);
+            }
+        }
+        
+        if (checking) {
+            for (int i = 0; i < size; i++) {
+                Entity entity = items[i];
+                if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
+                    collisionGrid.collide(entity);
+                }
+            }
+            collisionGrid.clear();
+        }
+    }
+    
+    private void removeDestroyed() {
+        int count = 0;
+        for (int i = 0; i < entities.size; i++) {
+            Entity entity = entities.get(i);
+            if (!entity.isDestroyed()) {
+                if (count != i) {
+                    entities.set(count, entity);
+                }
+                count++;
+            } else {
+                entity.unpackKinematics();
             }
-        });
+        }
+        entities.truncate(count);
+    }
+    
+    /**
+     * @param alpha how far this frame is between the last update and the
+     * next, from 0 to 1.
+     */
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        if (drawOrderDirty) {
+            entities.sort(DEPTH_COMPARATOR);
+            drawOrderDirty = false;
+        }
         
-        for (Entity entity : entities) {
+        Entity[] items = entities.begin();
+        for (int i = 0, n = entities.size; i < n; i++) {
+            Entity entity = items[i];
             if (!entity.isDestroyed()) {
                 if (entity.getTextureRegion() != null) {
-                    spriteBatch.draw(entity.getTextureRegion(), entity.getX() + entity.getXspeed() * delta, entity.getY() + entity.getYspeed() * delta, entity.getOffsetX(), entity.getOffsetY(), entity.getTextureRegion().getRegionWidth(), entity.getTextureRegion().getRegionHeight(), entity.getScaleX(), entity.getScaleY(), entity.getRotation());
+                    spriteBatch.draw(entity.getTextureRegion(), entity.getInterpolatedX(alpha), entity.getInterpolatedY(alpha), entity.getOffsetX(), entity.getOffsetY(), entity.getTextureRegion().getRegionWidth(), entity.getTextureRegion().getRegionHeight(), entity.getScaleX(), entity.getScaleY(), entity.getRotation());
                 }
                 
-                entity.draw(spriteBatch, delta);
+                entity.draw(spriteBatch, alpha);
             }
         }
+        entities.end();
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.esotericsoftware.spine.Skin;
+import com.esotericsoftware.spine.attachments.AttachmentLoader;
+import com.esotericsoftware.spine.attachments.BoundingBoxAttachment;
+import com.esotericsoftware.spine.attachments.ClippingAttachment;
+import com.esotericsoftware.spine.attachments.MeshAttachment;
+import com.esotericsoftware.spine.attachments.PathAttachment;
+import com.esotericsoftware.spine.attachments.PointAttachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+
+/**
+ * {@link AttachmentLoader} that does not need a texture atlas. Region and mesh
+ * attachments get an empty region, so skeleton data can be loaded and
+ * animated without a GL context.
+ */
+public class HeadlessAttachmentLoader implements AttachmentLoader {
+    private final static TextureRegion EMPTY_REGION = new TextureRegion();
+    
+    /**
+     * Gives the empty region a texture so headless skeletons can be passed to
+     * a batch. Only needed to draw without an atlas.
+     */
+    public static void setTexture(Texture texture) {
+        EMPTY_REGION.setTexture(texture);
+    }
+
+    @Override
+    public RegionAttachment newRegionAttachment(Skin skin, String name, String path) {
+        RegionAttachment attachment = new RegionAttachment(name);
+        attachment.setRegion(EMPTY_REGION);
+        return attachment;
+    }
+
+    @Override
+    public MeshAttachment newMeshAttachment(Skin skin, String name, String path) {
+        MeshAttachment attachment = new MeshAttachment(name);
+        attachment.setRegion(EMPTY_REGION);
+        return attachment;
+    }
+
+    @Override
+    public BoundingBoxAttachment newBoundingBoxAttachment(Skin skin, String name) {
+        return new BoundingBoxAttachment(name);
+    }
+
+    @Override
+    public ClippingAttachment newClippingAttachment(Skin skin, String name) {
+        return new ClippingAttachment(name);
+    }
+
+    @Override
+    public PathAttachment newPathAttachment(Skin skin, String name) {
+        return new PathAttachment(name);
+    }
+
+    @Override
+    public PointAttachment newPointAttachment(Skin skin, String name) {
+        return new PointAttachment(name);
+    }
+}
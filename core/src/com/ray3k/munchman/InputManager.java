@@ -25,12 +25,15 @@ package com.ray3k.munchman;
 
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntSet;
 
 public class InputManager implements InputProcessor {
     private final Array<KeyActionListener> flapListeners;
+    private final IntSet justPressed;
 
     public InputManager() {
         flapListeners = new Array<KeyActionListener>();
+        justPressed = new IntSet();
     }
     
     public interface KeyActionListener {
@@ -48,9 +51,23 @@ public class InputManager implements InputProcessor {
     public void dispose() {
         flapListeners.clear();
     }
+    
+    /**
+     * Returns true if the key was pressed since the last call to
+     * {@link #clearJustPressed()}. Unlike Gdx.input this does not depend on the
+     * render loop, so it can be fed by scripted input.
+     */
+    public boolean isKeyJustPressed(int keycode) {
+        return justPressed.contains(keycode);
+    }
+    
+    public void clearJustPressed() {
+        justPressed.clear();
+    }
 
     @Override
     public boolean keyDown(int keycode) {
+        justPressed.add(keycode);
         for (KeyActionListener flapListener : flapListeners) {
             flapListener.keyPressed(keycode);
         }
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman;
+
+/**
+ * Positions and motion of packed entities stored as parallel float arrays, so
+ * {@link EntityManager} can integrate all of them in one tight loop. Freed
+ * slots keep zero speed and gravity and are integrated along with the rest,
+ * which keeps the loop free of branches.
+ */
+public class KinematicsStore {
+    private final static int INITIAL_CAPACITY = 64;
+    float[] x;
+    float[] y;
+    float[] previousX;
+    float[] previousY;
+    float[] xSpeed;
+    float[] ySpeed;
+    float[] gravityX;
+    float[] gravityY;
+    private int[] freeSlots;
+    private int freeCount;
+    private int size;
+
+    public KinematicsStore() {
+        x = new float[INITIAL_CAPACITY];
+        y = new float[INITIAL_CAPACITY];
+        previousX = new float[INITIAL_CAPACITY];
+        previousY = new float[INITIAL_CAPACITY];
+        xSpeed = new float[INITIAL_CAPACITY];
+        ySpeed = new float[INITIAL_CAPACITY];
+        gravityX = new float[INITIAL_CAPACITY];
+        gravityY = new float[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+    }
+    
+    int allocate() {
+        int returnValue;
+        
+        if (freeCount > 0) {
+            returnValue = freeSlots[--freeCount];
+        } else {
+            if (size == x.length) {
+                resize(size * 2);
+            }
+            returnValue = size++;
+        }
+        
+        return returnValue;
+    }
+    
+    void free(int slot) {
+        xSpeed[slot] = 0.0f;
+        ySpeed[slot] = 0.0f;
+        gravityX[slot] = 0.0f;
+        gravityY[slot] = 0.0f;
+        
+        if (freeCount == freeSlots.length) {
+            int[] newFreeSlots = new int[freeSlots.length * 2];
+            System.arraycopy(freeSlots, 0, newFreeSlots, 0, freeCount);
+            freeSlots = newFreeSlots;
+        }
+        freeSlots[freeCount++] = slot;
+    }
+    
+    private void resize(int capacity) {
+        x = copyOf(x, capacity);
+        y = copyOf(y, capacity);
+        previousX = copyOf(previousX, capacity);
+        previousY = copyOf(previousY, capacity);
+        xSpeed = copyOf(xSpeed, capacity);
+        ySpeed = copyOf(ySpeed, capacity);
+        gravityX = copyOf(gravityX, capacity);
+        gravityY = copyOf(gravityY, capacity);
+    }
+    
+    private static float[] copyOf(float[] values, int capacity) {
+        float[] returnValue = new float[capacity];
+        System.arraycopy(values, 0, returnValue, 0, Math.min(values.length, capacity));
+        return returnValue;
+    }
+    
+    /**
+     * Saves the previous positions and applies gravity and speed, in the same
+     * order {@link EntityManager} uses for unpacked entities.
+     */
+    public void integrate(float delta) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] xSpeed = this.xSpeed;
+        float[] ySpeed = this.ySpeed;
+        System.arraycopy(x, 0, previousX, 0, size);
+        System.arraycopy(y, 0, previousY, 0, size);
+        
+        for (int i = 0; i < size; i++) {
+            xSpeed[i] += gravityX[i] * delta;
+            ySpeed[i] += gravityY[i] * delta;
+            x[i] += xSpeed[i] * delta;
+            y[i] += ySpeed[i] * delta;
+        }
+    }
+    
+    /**
+     * @return the number of slots in use, including freed ones waiting to be
+     * reused.
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    public int getFreeCount() {
+        return freeCount;
+    }
+}
@@ -29,7 +29,11 @@ public abstract class State {
     private Core core;
     
     public abstract void start();
-    public abstract void draw(SpriteBatch spriteBatch, float delta);
+    /**
+     * @param alpha how far this frame is between the last update and the
+     * next, from 0 to 1.
+     */
+    public abstract void draw(SpriteBatch spriteBatch, float alpha);
     public abstract void act(float delta);
     public abstract void stop();
     public abstract void dispose();
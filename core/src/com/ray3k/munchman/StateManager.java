@@ -41,9 +41,9 @@ public class StateManager {
         states.put(name, state);
     }
     
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         if (loadedState != null) {
-            loadedState.draw(spriteBatch, delta);
+            loadedState.draw(spriteBatch, alpha);
         }
     }
     
@@ -66,8 +66,9 @@ public class StateManager {
             loadedState = states.get(name);
             if (loadedState == null) {
                 Gdx.app.error(StateManager.class.getName(), "State does not exist: " + name);
+            } else {
+                loadedState.start();
             }
-            loadedState.start();
         }
     }
     
@@ -90,6 +91,10 @@ public class StateManager {
         return states.get(name);
     }
 
+    public State getLoadedState() {
+        return loadedState;
+    }
+
     void resize(int width, int height) {
         if (loadedState != null) {
             loadedState.resize(width, height);
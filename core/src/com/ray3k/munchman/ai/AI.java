@@ -24,16 +24,41 @@
 package com.ray3k.munchman.ai;
 
 import com.ray3k.munchman.entities.GhostEntity;
-import com.ray3k.munchman.entities.PlayerEntity;
 import com.ray3k.munchman.states.GameState;
 
 /**
- *
+ * Ghost behaviours are shared between ghosts and keep no state of their own.
+ * Anything a behaviour needs to remember is stored on the GhostEntity.
  * @author Raymond
  */
 public interface AI {
+    /**
+     * Decision that leaves the ghost's motion as it is.
+     */
+    public final static int KEEP = -2;
+    
+    /**
+     * Called by GhostEntity.setAi() so the behaviour can reset the ghost's
+     * state.
+     */
+    public void enter(GhostEntity entity);
+    
+    /**
+     * Makes the path decision for a ghost standing on a grid point. This may
+     * run on a worker thread, so it must only read shared state. The ghost's
+     * motion, position, skin and AI are left to {@link #step}; only the
+     * ghost's own random generator and cached prediction may change.
+     * @param delta the time step() will be called with.
+     * @return a GridDirection, or {@link #KEEP}. Behaviours may add flags of
+     * their own above the direction bits.
+     */
+    public int decide(float delta, GhostEntity entity, GameState gameState);
+    
+    /**
+     * Moves the ghost, applying the decision from
+     * {@link GhostEntity#takeDecision()} when it stands on a grid point.
+     * takeDecision() returns {@link #KEEP} if the ghost has already decided
+     * at that point, which must leave the motion unchanged. Always runs on the thread that updates the entities.
+     */
     public void step(float delta, GhostEntity entity, GameState gameState);
-    public void setPlayerGridX(int x);
-    public void setPlayerGridY(int y);
-    public void setPlayerDirection(PlayerEntity.Direction direction);
 }
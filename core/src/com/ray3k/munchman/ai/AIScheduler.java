@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman.ai;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Queue;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.ray3k.munchman.entities.GhostEntity;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads ghost decisions across ticks. Ghosts queue themselves when they
+ * reach a grid point, where every AI makes its path decisions, and the queue
+ * is drained at the end of the tick until the budget is spent. At least one
+ * decision runs per tick so the queue always drains. Ghosts left waiting keep
+ * their heading, stopping only if it would take them into a wall, and are
+ * served first on the next tick, after being moved back onto the grid point
+ * they were queued at.
+ * <p>
+ * When enough ghosts are waiting and the caller allows it, the decisions of
+ * a batch are made across worker threads with the calling thread joining in.
+ * {@link AI#decide} only reads shared state and stores its result on the
+ * ghost. Once every worker has finished, the calling thread steps each ghost
+ * in queue order, which applies the motion and any skin or AI change.
+ */
+public class AIScheduler implements Disposable {
+    public final static long DEFAULT_BUDGET_MICROS = 2000;
+    /**
+     * Runs every queued decision in the tick it was made, which keeps seeded
+     * runs reproducible.
+     */
+    public final static long UNLIMITED = -1;
+    private final static int MIN_PARALLEL_BATCH = 8;
+    private final static int BATCH_PER_THREAD = 8;
+    private final Queue<GhostEntity> queue;
+    private long budgetMicros;
+    private int deferred;
+    private int threads;
+    private AsyncExecutor executor;
+    private final AsyncTask<Void> decisionTask;
+    private final Array<AsyncResult<Void>> results;
+    private GhostEntity[] batch;
+    private int batchSize;
+    private final AtomicInteger batchIndex;
+
+    public AIScheduler() {
+        queue = new Queue<GhostEntity>();
+        budgetMicros = DEFAULT_BUDGET_MICROS;
+        threads = Math.max(0, Runtime.getRuntime().availableProcessors() - 1);
+        results = new Array<AsyncResult<Void>>();
+        batch = new GhostEntity[0];
+        batchIndex = new AtomicInteger();
+        decisionTask = new AsyncTask<Void>() {
+            @Override
+            public Void call() throws Exception {
+                runBatch();
+                return null;
+            }
+        };
+    }
+    
+    public void add(GhostEntity ghost) {
+        queue.addLast(ghost);
+    }
+    
+    /**
+     * Runs queued decisions until the budget for this tick is spent.
+     * @param parallel whether decisions may run on worker threads. Path
+     * queries that fall back to the path finder are not thread safe.
+     */
+    public void run(boolean parallel) {
+        long start = TimeUtils.nanoTime();
+        long budgetNanos = budgetMicros * 1000L;
+        
+        boolean first = true;
+        while (queue.size > 0 && (first || budgetNanos < 0 || TimeUtils.nanoTime() - start < budgetNanos)) {
+            if (parallel && threads > 0 && queue.size >= MIN_PARALLEL_BATCH) {
+                runParallel(Math.min(queue.size, (threads + 1) * BATCH_PER_THREAD));
+            } else {
+                GhostEntity ghost = queue.removeFirst();
+                if (!ghost.isDestroyed()) {
+                    ghost.stepAi();
+                }
+            }
+            first = false;
+        }
+        
+        for (int i = 0; i < queue.size; i++) {
+            queue.get(i).holdHeading();
+        }
+        deferred += queue.size;
+    }
+    
+    private void runParallel(int count) {
+        if (batch.length < count) {
+            batch = new GhostEntity[count];
+        }
+        batchSize = 0;
+        for (int i = 0; i < count; i++) {
+            GhostEntity ghost = queue.removeFirst();
+            if (!ghost.isDestroyed()) {
+                ghost.returnToQueuedCell();
+                batch[batchSize++] = ghost;
+            }
+        }
+        batchIndex.set(0);
+        
+        if (executor == null) {
+            executor = new AsyncExecutor(threads);
+        }
+        int workers = Math.min(threads, batchSize - 1);
+        for (int i = 0; i < workers; i++) {
+            results.add(executor.submit(decisionTask));
+        }
+        runBatch();
+        for (int i = 0; i < results.size; i++) {
+            results.get(i).get();
+        }
+        results.clear();
+        
+        for (int i = 0; i < batchSize; i++) {
+            batch[i].stepAi();
+            batch[i] = null;
+        }
+    }
+    
+    private void runBatch() {
+        int index;
+        while ((index = batchIndex.getAndIncrement()) < batchSize) {
+            batch[index].decideAi();
+        }
+    }
+    
+    public void clear() {
+        queue.clear();
+        deferred = 0;
+    }
+
+    public long getBudgetMicros() {
+        return budgetMicros;
+    }
+
+    public void setBudgetMicros(long budgetMicros) {
+        this.budgetMicros = budgetMicros;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads worker threads used alongside the calling thread, or 0
+     * to run every decision on the calling thread.
+     */
+    public void setThreads(int threads) {
+        if (threads != this.threads && executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+        this.threads = threads;
+    }
+
+    public int getQueueSize() {
+        return queue.size;
+    }
+
+    /**
+     * @return the number of times a queued decision was carried over to the
+     * next tick.
+     */
+    public int getDeferred() {
+        return deferred;
+    }
+
+    @Override
+    public void dispose() {
+        if (executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+    }
+}
@@ -26,16 +26,28 @@ package com.ray3k.munchman.ai;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.ray3k.munchman.entities.GhostEntity;
-import com.ray3k.munchman.entities.PlayerEntity;
+import com.ray3k.munchman.navigation.GridDirection;
 import com.ray3k.munchman.states.GameState;
 import com.ray3k.munchman.states.LevelDesignerState;
-import java.util.List;
-import org.xguzm.pathfinding.grid.GridCell;
 
 public class AggressiveAI implements AI {
+    public final static AggressiveAI INSTANCE = new AggressiveAI();
     private final static float ENEMY_SPEED = 100.0f;
-    private int playerGridX;
-    private int playerGridY;
+
+    private AggressiveAI() {
+    }
+    
+    @Override
+    public void enter(GhostEntity entity) {
+    }
+    
+    @Override
+    public int decide(float delta, GhostEntity entity, GameState gameState) {
+        int gridX = (int) ((entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        
+        return gameState.getDistanceField().getNextDirection(gridX, gridY);
+    }
     
     @Override
     public void step(float delta, GhostEntity entity, GameState gameState) {
@@ -43,38 +55,13 @@ public class AggressiveAI implements AI {
         int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
 
         if (MathUtils.isEqual(gridX * LevelDesignerState.GRID_DIMENSION, entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1) && MathUtils.isEqual(gridY * LevelDesignerState.GRID_DIMENSION, entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1)) {
-            List<GridCell> path = gameState.getNavFinder().findPath(gridX, gridY, playerGridX, playerGridY, gameState.getNavGrid());
-            if (path != null && path.size() > 0) {
-                int targetGridX = path.get(0).x;
-                int targetGridY = path.get(0).y;
-
-                if (gridX < targetGridX) {
-                    entity.setMotion(ENEMY_SPEED, 0.0f);
-                } else if (gridX > targetGridX) {
-                    entity.setMotion(ENEMY_SPEED, 180.0f);
-                } else if (gridY < targetGridY) {
-                    entity.setMotion(ENEMY_SPEED, 90.0f);
-                } else if (gridY > targetGridY) {
-                    entity.setMotion(ENEMY_SPEED, 270.0f);
-                }
-            } else {
+            int direction = entity.takeDecision();
+            if (direction == GridDirection.NONE) {
                 entity.setMotion(0.0f, 0.0f);
+            } else if (direction != KEEP) {
+                entity.setMotion(ENEMY_SPEED, GridDirection.toAngle(direction));
             }
         }
     }
 
-    @Override
-    public void setPlayerGridX(int x) {
-        playerGridX = x;
-    }
-
-    @Override
-    public void setPlayerGridY(int y) {
-        playerGridY = y;
-    }
-
-    @Override
-    public void setPlayerDirection(PlayerEntity.Direction direction) {
-    }
-
 }
@@ -26,21 +26,48 @@ package com.ray3k.munchman.ai;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.ray3k.munchman.entities.GhostEntity;
-import com.ray3k.munchman.entities.PlayerEntity;
+import com.ray3k.munchman.navigation.DistanceField;
+import com.ray3k.munchman.navigation.GridDirection;
+import com.ray3k.munchman.navigation.WalkabilityMap;
 import com.ray3k.munchman.states.GameState;
 import com.ray3k.munchman.states.LevelDesignerState;
-import java.util.List;
-import org.xguzm.pathfinding.grid.GridCell;
 
 public class CunningAI implements AI {
+    public final static CunningAI INSTANCE = new CunningAI();
     private final static float ENEMY_SPEED = 90.0f;
     private final static int PREDICT_DISTANCE = 10;
     private final static int ANGER_DISTANCE = 3;
-    private int playerGridX;
-    private int playerGridY;
-    private int targetX;
-    private int targetY;
-    private PlayerEntity.Direction playerDirection;
+
+    private CunningAI() {
+    }
+    
+    @Override
+    public void enter(GhostEntity entity) {
+    }
+    
+    @Override
+    public int decide(float delta, GhostEntity entity, GameState gameState) {
+        int gridX = (int) ((entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        
+        int returnValue = GridDirection.NONE;
+        int distance = gameState.getDistanceField().getDistance(gridX, gridY);
+        if (distance != DistanceField.UNREACHABLE) {
+            if (distance > ANGER_DISTANCE) {
+                int target = entity.getPredictedTarget();
+                if (target == -1) {
+                    target = predictTarget(entity, gameState);
+                    entity.setPredictedTarget(target);
+                }
+                int height = gameState.getGrid()[0].length;
+                returnValue = gameState.findNextDirection(gridX, gridY, target / height, target % height);
+            } else {
+                returnValue = gameState.getDistanceField().getNextDirection(gridX, gridY);
+            }
+        }
+        
+        return returnValue;
+    }
     
     @Override
     public void step(float delta, GhostEntity entity, GameState gameState) {
@@ -48,108 +75,72 @@ public class CunningAI implements AI {
         int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
 
         if (MathUtils.isEqual(gridX * LevelDesignerState.GRID_DIMENSION, entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f) && MathUtils.isEqual(gridY * LevelDesignerState.GRID_DIMENSION, entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f)) {
-            List<GridCell> path = gameState.getNavFinder().findPath(gridX, gridY, playerGridX, playerGridY, gameState.getNavGrid());
-            if (path != null && path.size() > ANGER_DISTANCE) {
-                predictTarget(gameState);
-                path = gameState.getNavFinder().findPath(gridX, gridY, targetX, targetY, gameState.getNavGrid());
-            }
-            if (path != null && path.size() > 0) {
-                int pathX = path.get(0).x;
-                int pathY = path.get(0).y;
-
-                if (gridX < pathX) {
-                    entity.setMotion(ENEMY_SPEED, 0.0f);
-                } else if (gridX > pathX) {
-                    entity.setMotion(ENEMY_SPEED, 180.0f);
-                } else if (gridY < pathY) {
-                    entity.setMotion(ENEMY_SPEED, 90.0f);
-                } else if (gridY > pathY) {
-                    entity.setMotion(ENEMY_SPEED, 270.0f);
-                }
-            } else {
+            int direction = entity.takeDecision();
+            if (direction == GridDirection.NONE) {
                 entity.setMotion(0.0f, 0.0f);
+            } else if (direction != KEEP) {
+                entity.setMotion(ENEMY_SPEED, GridDirection.toAngle(direction));
             }
         }
     }
 
-    private void predictTarget(GameState gameState) {
-        targetX = playerGridX;
-        targetY = playerGridY;
+    /**
+     * @return the predicted cell of the player, indexed by x * height + y.
+     */
+    private int predictTarget(GhostEntity entity, GameState gameState) {
+        int targetX = entity.getPlayerGridX();
+        int targetY = entity.getPlayerGridY();
+        WalkabilityMap walkability = gameState.getWalkability();
         
         for (int i = 0; i < PREDICT_DISTANCE; i++) {
-            switch (playerDirection) {
+            switch (entity.getPlayerDirection()) {
                 case RIGHT:
-                    if (isGridEmpty(targetX + 1, targetY, gameState)) {
+                    if (walkability.isWalkable(targetX + 1, targetY)) {
                         targetX++;
                     } else {
-                        if (isGridEmpty(targetX, targetY + 1, gameState)) {
+                        if (walkability.isWalkable(targetX, targetY + 1)) {
                             targetY++;
-                        } else if (isGridEmpty(targetX, targetY - 1, gameState)) {
+                        } else if (walkability.isWalkable(targetX, targetY - 1)) {
                             targetY--;
                         }                        
                     }
                     break;
                 case LEFT:
-                    if (isGridEmpty(targetX - 1, targetY, gameState)) {
+                    if (walkability.isWalkable(targetX - 1, targetY)) {
                         targetX--;
                     } else {
-                        if (isGridEmpty(targetX, targetY + 1, gameState)) {
+                        if (walkability.isWalkable(targetX, targetY + 1)) {
                             targetY++;
-                        } else if (isGridEmpty(targetX, targetY - 1, gameState)) {
+                        } else if (walkability.isWalkable(targetX, targetY - 1)) {
                             targetY--;
                         }                        
                     }
                     break;
                 case UP:
-                    if (isGridEmpty(targetX, targetY + 1, gameState)) {
+                    if (walkability.isWalkable(targetX, targetY + 1)) {
                         targetY++;
                     } else {
-                        if (isGridEmpty(targetX + 1, targetY, gameState)) {
+                        if (walkability.isWalkable(targetX + 1, targetY)) {
                             targetX++;
-                        } else if (isGridEmpty(targetX - 1, targetY, gameState)) {
+                        } else if (walkability.isWalkable(targetX - 1, targetY)) {
                             targetX--;
                         }                        
                     }
                     break;
                 case DOWN:
-                    if (isGridEmpty(targetX, targetY - 1, gameState)) {
+                    if (walkability.isWalkable(targetX, targetY - 1)) {
                         targetY--;
                     } else {
-                        if (isGridEmpty(targetX + 1, targetY, gameState)) {
+                        if (walkability.isWalkable(targetX + 1, targetY)) {
                             targetX++;
-                        } else if (isGridEmpty(targetX - 1, targetY, gameState)) {
+                        } else if (walkability.isWalkable(targetX - 1, targetY)) {
                             targetX--;
                         }                        
                     }
                     break;
             }
         }
-    }
-    
-    @Override
-    public void setPlayerGridX(int x) {
-        playerGridX = x;
-    }
-
-    @Override
-    public void setPlayerGridY(int y) {
-        playerGridY = y;
-    }
-
-    @Override
-    public void setPlayerDirection(PlayerEntity.Direction direction) {
-        playerDirection = direction;
-    }
-    
-    private boolean isGridEmpty(int x, int y, GameState gameState) {
-        boolean returnValue = true;
-        
-        if (x < 0 || y < 0 || x > gameState.getGrid().length - 1 || y > gameState.getGrid()[0].length - 1) {
-            returnValue = false;
-        } else {
-            returnValue = gameState.getNavCells()[x][y].isWalkable();
-        }
         
-        return returnValue;
+        return targetX * gameState.getGrid()[0].length + targetY;
     }
 }
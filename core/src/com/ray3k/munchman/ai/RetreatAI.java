@@ -25,32 +25,44 @@
 package com.ray3k.munchman.ai;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
 import com.ray3k.munchman.entities.GhostEntity;
-import com.ray3k.munchman.entities.PlayerEntity;
+import com.ray3k.munchman.navigation.GridDirection;
 import com.ray3k.munchman.states.GameState;
 import com.ray3k.munchman.states.LevelDesignerState;
-import java.util.List;
-import org.xguzm.pathfinding.grid.GridCell;
 
 public class RetreatAI implements AI {
+    public final static RetreatAI INSTANCE = new RetreatAI();
     private final static float ENEMY_SPEED = 100.0f;
-    private boolean foundHome;
-    private float targetX;
-    private float targetY;
 
-    public RetreatAI() {
-        foundHome = false;
+    private RetreatAI() {
+    }
+    
+    @Override
+    public void enter(GhostEntity entity) {
+        entity.setHomeFound(false);
+    }
+    
+    @Override
+    public int decide(float delta, GhostEntity entity, GameState gameState) {
+        int returnValue = KEEP;
+        
+        if (!entity.isHomeFound()) {
+            int gridX = (int) ((entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+            int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+            returnValue = gameState.findNextDirection(gridX, gridY, gameState.getGhostPenX(), gameState.getGhostPenY());
+        }
+        
+        return returnValue;
     }
     
     @Override
     public void step(float delta, GhostEntity entity, GameState gameState) {
-        if (!foundHome) {
+        if (!entity.isHomeFound()) {
             entity.setMotion(ENEMY_SPEED, entity.getDirection());
         } else {
-            moveTowardsPoint(targetX, targetY, entity, delta);
-            if (MathUtils.isEqual(entity.getX(), targetX) && MathUtils.isEqual(entity.getY(), targetY)) {
-                entity.setAi(new SpawnAI());
+            moveTowardsPoint(entity.getHomeX(), entity.getHomeY(), entity, delta);
+            if (MathUtils.isEqual(entity.getX(), entity.getHomeX()) && MathUtils.isEqual(entity.getY(), entity.getHomeY())) {
+                entity.setAi(SpawnAI.INSTANCE);
                 entity.setSkin(entity.getPrimarySkin());
             }
         }
@@ -59,50 +71,33 @@ public class RetreatAI implements AI {
         int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
         
         if (MathUtils.isEqual(gridX * LevelDesignerState.GRID_DIMENSION, entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f) && MathUtils.isEqual(gridY * LevelDesignerState.GRID_DIMENSION, entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f)) {
-            if (!foundHome) {
-                List<GridCell> path = gameState.getNavFinder().findPath(gridX, gridY, gameState.getGhostPenX(), gameState.getGhostPenY(), gameState.getNavGrid());
-                if (path != null && path.size() > 0) {
-                    int targetGridX = path.get(0).x;
-                    int targetGridY = path.get(0).y;
-
-                    if (gridX < targetGridX) {
-                        entity.setMotion(ENEMY_SPEED, 0.0f);
-                    } else if (gridX > targetGridX) {
-                        entity.setMotion(ENEMY_SPEED, 180.0f);
-                    } else if (gridY < targetGridY) {
-                        entity.setMotion(ENEMY_SPEED, 90.0f);
-                    } else if (gridY > targetGridY) {
-                        entity.setMotion(ENEMY_SPEED, 270.0f);
-                    }
-                } else {
+            if (!entity.isHomeFound()) {
+                int direction = entity.takeDecision();
+                if (direction == GridDirection.NONE) {
                     entity.setMotion(0.0f, 0.0f);
-                    foundHome = true;
-                    targetX = (gameState.getGhostPenX() + .5f) * LevelDesignerState.GRID_DIMENSION;
-                    targetY = (gameState.getGhostPenY() - 2.5f) * LevelDesignerState.GRID_DIMENSION;
+                    entity.setHomeFound(true);
+                    entity.setHomeX((gameState.getGhostPenX() + .5f) * LevelDesignerState.GRID_DIMENSION);
+                    entity.setHomeY((gameState.getGhostPenY() - 2.5f) * LevelDesignerState.GRID_DIMENSION);
+                } else if (direction != KEEP) {
+                    entity.setMotion(ENEMY_SPEED, GridDirection.toAngle(direction));
                 }
             }
         }
     }
 
-    private static Vector2 temp1 = new Vector2();
-    private static Vector2 temp2 = new Vector2();
-    
     public void moveTowardsPoint(float x, float y, GhostEntity entity, float delta) {
         float originalX = entity.getX();
         float originalY = entity.getY();
         
-        temp1.set(entity.getX(), entity.getY());
-        temp2.set(x, y);
-        temp2.sub(temp1).nor();
-        
-        temp1.set(ENEMY_SPEED * delta, 0);
-        temp1.rotate(temp2.angle());
-        
-        if (entity.getX() != x) {
-            entity.addX(temp1.x);
-        }
-        if (entity.getY() != y) {
-            entity.addY(temp1.y);
+        float distance = (float) Math.sqrt((x - originalX) * (x - originalX) + (y - originalY) * (y - originalY));
+        if (distance > 0.0f) {
+            float step = ENEMY_SPEED * delta / distance;
+            if (entity.getX() != x) {
+                entity.addX((x - originalX) * step);
+            }
+            if (entity.getY() != y) {
+                entity.addY((y - originalY) * step);
+            }
         }
         
         if (originalX < x && entity.getX() > x || originalX > x && entity.getX() < x) {
@@ -114,16 +109,4 @@ public class RetreatAI implements AI {
         }
     }
     
-    @Override
-    public void setPlayerGridX(int x) {
-    }
-
-    @Override
-    public void setPlayerGridY(int y) {
-    }
-
-    @Override
-    public void setPlayerDirection(PlayerEntity.Direction direction) {
-    }
-
 }
@@ -26,12 +26,24 @@ package com.ray3k.munchman.ai;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.ray3k.munchman.entities.GhostEntity;
-import com.ray3k.munchman.entities.PlayerEntity;
 import com.ray3k.munchman.states.GameState;
 import com.ray3k.munchman.states.LevelDesignerState;
 
 public class SpawnAI implements AI {
+    public final static SpawnAI INSTANCE = new SpawnAI();
     private final static float ENEMY_SPEED = 10.0f;
+
+    private SpawnAI() {
+    }
+    
+    @Override
+    public void enter(GhostEntity entity) {
+    }
+    
+    @Override
+    public int decide(float delta, GhostEntity entity, GameState gameState) {
+        return KEEP;
+    }
     
     @Override
     public void step(float delta, GhostEntity entity, GameState gameState) {
@@ -41,7 +53,7 @@ public class SpawnAI implements AI {
         int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
 
         if (MathUtils.isEqual(gridX * LevelDesignerState.GRID_DIMENSION, entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f) && MathUtils.isEqual(gridY * LevelDesignerState.GRID_DIMENSION, entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f)) {
-            if (isGridEmpty(gridX, gridY, gameState)) {
+            if (gameState.getWalkability().isWalkable(gridX, gridY)) {
                 entity.setX(gridX * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f);
                 entity.setY(gridY * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f);
                 entity.setMotion(0.0f, 0.0f);
@@ -49,28 +61,4 @@ public class SpawnAI implements AI {
             }
         }
     }
-
-    @Override
-    public void setPlayerGridX(int x) {
-    }
-
-    @Override
-    public void setPlayerGridY(int y) {
-    }
-
-    @Override
-    public void setPlayerDirection(PlayerEntity.Direction direction) {
-    }
-
-    private boolean isGridEmpty(int x, int y, GameState gameState) {
-        boolean returnValue = true;
-        
-        if (x < 0 || y < 0 || x > gameState.getGrid().length - 1 || y > gameState.getGrid()[0].length - 1) {
-            returnValue = false;
-        } else {
-            returnValue = gameState.getNavCells()[x][y].isWalkable();
-        }
-        
-        return returnValue;
-    }
 }
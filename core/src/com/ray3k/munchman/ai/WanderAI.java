@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman.ai;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.ray3k.munchman.entities.GhostEntity;
+import com.ray3k.munchman.navigation.GridDirection;
+import com.ray3k.munchman.states.GameState;
+import com.ray3k.munchman.states.LevelDesignerState;
+
+/**
+ * Wanders the maze, picking a random open direction when blocked and now and
+ * then turning off at a corner. Shared by RandomAI and ScaredAI.
+ */
+public abstract class WanderAI implements AI {
+    private final static float CHANGE_DIR_TIME = 5.0f;
+    private final static int HORIZONTAL = GridDirection.bit(GridDirection.RIGHT) | GridDirection.bit(GridDirection.LEFT);
+    private final static int VERTICAL = GridDirection.bit(GridDirection.UP) | GridDirection.bit(GridDirection.DOWN);
+    /**
+     * Marks a decision made because the direction timer ran out, which
+     * restarts the timer when applied.
+     */
+    private final static int TIMED_TURN = 0x100;
+    private final float speed;
+
+    protected WanderAI(float speed) {
+        this.speed = speed;
+    }
+
+    @Override
+    public void enter(GhostEntity entity) {
+        entity.setDirectionTimer(CHANGE_DIR_TIME);
+    }
+    
+    @Override
+    public int decide(float delta, GhostEntity entity, GameState gameState) {
+        int gridX = (int) ((entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        int open = gameState.getWalkability().getOpenDirections(gridX, gridY);
+        int direction = GridDirection.fromAngle(entity.getDirection());
+        
+        int returnValue = KEEP;
+        if (direction != GridDirection.NONE && (open & GridDirection.bit(direction)) == 0) {
+            returnValue = choose(open, entity);
+        } else if (MathUtils.isEqual(entity.getSpeed(), 0.0f)) {
+            returnValue = choose(open, entity);
+        } else if (entity.getDirectionTimer() - delta < 0 && direction != GridDirection.NONE) {
+            int turns = open & (direction == GridDirection.RIGHT || direction == GridDirection.LEFT ? VERTICAL : HORIZONTAL);
+            if (turns != 0) {
+                returnValue = choose(turns, entity) | TIMED_TURN;
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    private int choose(int directions, GhostEntity entity) {
+        int returnValue = GridDirection.pick(directions, entity.getRandom());
+        return returnValue != GridDirection.NONE ? returnValue : KEEP;
+    }
+    
+    protected void wander(float delta, GhostEntity entity) {
+        int gridX = (int) ((entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        int gridY = (int) ((entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+
+        int decision = KEEP;
+        if (MathUtils.isEqual(gridX * LevelDesignerState.GRID_DIMENSION, entity.getX() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f) && MathUtils.isEqual(gridY * LevelDesignerState.GRID_DIMENSION, entity.getY() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f)) {
+            decision = entity.takeDecision();
+        }
+        
+        if (decision != KEEP && (decision & TIMED_TURN) != 0) {
+            entity.setDirectionTimer(CHANGE_DIR_TIME);
+            decision &= ~TIMED_TURN;
+        } else {
+            entity.setDirectionTimer(entity.getDirectionTimer() - delta);
+        }
+        
+        if (decision != KEEP) {
+            entity.setMotion(speed, GridDirection.toAngle(decision));
+        }
+    }
+}
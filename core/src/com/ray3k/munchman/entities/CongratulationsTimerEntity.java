@@ -48,7 +48,10 @@ public class CongratulationsTimerEntity extends Entity {
         time -= delta;
         if (time < 0) {
             dispose();
-            ((CongratulationsState) getCore().getStateManager().getState("congratulations")).setScore(gameState.getScore());
+            CongratulationsState state = (CongratulationsState) getCore().getStateManager().getState("congratulations");
+            if (state != null) {
+                state.setScore(gameState.getScore());
+            }
             getCore().getStateManager().loadState("congratulations");
         }
     }
@@ -58,7 +61,7 @@ public class CongratulationsTimerEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
     }
 
     @Override
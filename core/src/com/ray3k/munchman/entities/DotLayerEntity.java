@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.entities;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.munchman.Core;
+import com.ray3k.munchman.Entity;
+import com.ray3k.munchman.states.GameState;
+import com.ray3k.munchman.states.LevelDesignerState;
+
+/**
+ * Draws every dot of a level from one shared skeleton. The prototype is
+ * animated once per tick and its region vertices are cached, then each dot
+ * left in the {@link PickupIndex} is drawn as a translated copy. Dots have no
+ * entity of their own.
+ */
+public class DotLayerEntity extends Entity {
+    private final static short[] TRIANGLES = {0, 1, 2, 2, 3, 0};
+    private final static int QUAD_SIZE = 24;
+    private static final Color tempColor = new Color();
+    private Skeleton skeleton;
+    private AnimationState animationState;
+    private GameState gameState;
+    private float[] prototypeVertices;
+    private Array<Texture> prototypeTextures;
+    private int quadCount;
+    private float[] worldVertices;
+    private float[] vertices;
+
+    public DotLayerEntity(final GameState gameState) {
+        super(gameState.getEntityManager(), gameState.getCore());
+        this.gameState = gameState;
+        SkeletonData skeletonData = getCore().getAssetManager().get(Core.DATA_PATH + "/spine/ball.json", SkeletonData.class);
+        skeleton = new Skeleton(skeletonData);
+        skeleton.setSkin("dot");
+        AnimationStateData animationStateData = new AnimationStateData(skeletonData);
+        animationState = new AnimationState(animationStateData);
+        animationState.setAnimation(0, "animation", true);
+        
+        prototypeVertices = new float[skeletonData.getSlots().size * QUAD_SIZE];
+        prototypeTextures = new Array<Texture>();
+        worldVertices = new float[8];
+        vertices = new float[QUAD_SIZE];
+        updatePrototype();
+    }
+
+    @Override
+    public void create() {
+    }
+
+    @Override
+    public void act(float delta) {
+        animationState.update(delta);
+        animationState.apply(skeleton);
+        skeleton.updateWorldTransform();
+        updatePrototype();
+    }
+    
+    private void updatePrototype() {
+        quadCount = 0;
+        prototypeTextures.clear();
+        
+        Array<Slot> drawOrder = skeleton.getDrawOrder();
+        for (int i = 0; i < drawOrder.size; i++) {
+            Slot slot = drawOrder.get(i);
+            Attachment attachment = slot.getAttachment();
+            if (attachment instanceof RegionAttachment) {
+                RegionAttachment region = (RegionAttachment) attachment;
+                region.computeWorldVertices(slot.getBone(), worldVertices, 0, 2);
+                float[] uvs = region.getUVs();
+                
+                tempColor.set(skeleton.getColor()).mul(slot.getColor()).mul(region.getColor());
+                float light = tempColor.toFloatBits();
+                float dark = 0;
+                if (slot.getDarkColor() != null) {
+                    Color darkColor = slot.getDarkColor();
+                    dark = NumberUtils.intToFloatColor(((int) (darkColor.b * 255) << 16) | ((int) (darkColor.g * 255) << 8) | (int) (darkColor.r * 255));
+                }
+                
+                int offset = quadCount * QUAD_SIZE;
+                for (int vertex = 0; vertex < 4; vertex++) {
+                    prototypeVertices[offset++] = worldVertices[vertex * 2];
+                    prototypeVertices[offset++] = worldVertices[vertex * 2 + 1];
+                    prototypeVertices[offset++] = light;
+                    prototypeVertices[offset++] = dark;
+                    prototypeVertices[offset++] = uvs[vertex * 2];
+                    prototypeVertices[offset++] = uvs[vertex * 2 + 1];
+                }
+                prototypeTextures.add(region.getRegion().getTexture());
+                quadCount++;
+            }
+        }
+    }
+
+    @Override
+    public void act_end(float delta) {
+    }
+
+    @Override
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        TwoColorPolygonBatch batch = getCore().getTwoColorPolygonBatch();
+        PickupIndex pickupIndex = gameState.getPickupIndex();
+        
+        for (int x = 0; x < pickupIndex.getWidth(); x++) {
+            for (int y = 0; y < pickupIndex.getHeight(); y++) {
+                if (pickupIndex.getType(x, y) == PickupIndex.DOT) {
+                    float offsetX = x * LevelDesignerState.GRID_DIMENSION;
+                    float offsetY = y * LevelDesignerState.GRID_DIMENSION;
+                    
+                    for (int quad = 0; quad < quadCount; quad++) {
+                        System.arraycopy(prototypeVertices, quad * QUAD_SIZE, vertices, 0, QUAD_SIZE);
+                        for (int i = 0; i < QUAD_SIZE; i += 6) {
+                            vertices[i] += offsetX;
+                            vertices[i + 1] += offsetY;
+                        }
+                        batch.draw(prototypeTextures.get(quad), vertices, 0, QUAD_SIZE, TRIANGLES, 0, TRIANGLES.length);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void collision(Entity other) {
+    }
+}
@@ -48,7 +48,10 @@ public class GameOverTimerEntity extends Entity {
         time -= delta;
         if (time < 0) {
             dispose();
-            ((GameOverState) getCore().getStateManager().getState("game-over")).setScore(gameState.getScore());
+            GameOverState state = (GameOverState) getCore().getStateManager().getState("game-over");
+            if (state != null) {
+                state.setScore(gameState.getScore());
+            }
             getCore().getStateManager().loadState("game-over");
         }
     }
@@ -58,7 +61,7 @@ public class GameOverTimerEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
     }
 
     @Override
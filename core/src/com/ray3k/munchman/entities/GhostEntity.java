@@ -25,8 +25,9 @@
 package com.ray3k.munchman.entities;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonBounds;
 import com.esotericsoftware.spine.SkeletonData;
@@ -34,7 +35,9 @@ import com.ray3k.munchman.Core;
 import com.ray3k.munchman.Entity;
 import com.ray3k.munchman.ai.AI;
 import com.ray3k.munchman.ai.SpawnAI;
+import com.ray3k.munchman.navigation.GridDirection;
 import com.ray3k.munchman.states.GameState;
+import com.ray3k.munchman.states.LevelDesignerState;
 
 public class GhostEntity extends Entity implements PlayerGridListener {
     private Skeleton skeleton;
@@ -43,31 +46,53 @@ public class GhostEntity extends Entity implements PlayerGridListener {
     private GameState gameState;
     private AI ai;
     private AI primaryAI;
+    private boolean aiPending;
+    private float aiDelta;
+    private float queuedX;
+    private float queuedY;
+    private boolean decidedAtGridPoint;
+    private int decision;
+    private boolean decided;
+    private RandomXS128 random;
     private String primarySkin;
+    private int playerGridX;
+    private int playerGridY;
+    private PlayerEntity.Direction playerDirection;
+    private int predictedTarget;
+    private float directionTimer;
+    private float stateTimer;
+    private boolean homeFound;
+    private float homeX;
+    private float homeY;
 
     public GhostEntity(final GameState gameState) {
         super(gameState.getEntityManager(), gameState.getCore());
         this.gameState = gameState;
+        packKinematics();
         setDepth(-10);
         SkeletonData skeletonData = getCore().getAssetManager().get(Core.DATA_PATH + "/spine/ghost.json", SkeletonData.class);
         skeleton = new Skeleton(skeletonData);
         skeleton.setSkin("blue");
-        AnimationStateData animationStateData = new AnimationStateData(skeletonData);
-        animationStateData.setDefaultMix(.25f);
-        animationState = new AnimationState(animationStateData);
+        animationState = new AnimationState(gameState.getGhostAnimationStateData());
         animationState.setAnimation(0, "walk", true);
         
         skeletonBounds = new SkeletonBounds();
         skeletonBounds.update(skeleton, true);
         
-        ai = new SpawnAI();
+        random = new RandomXS128(gameState.getRandom().nextLong());
+        playerDirection = PlayerEntity.Direction.NONE;
+        predictedTarget = -1;
+        setAi(SpawnAI.INSTANCE);
     }
 
     @Override
     public void newGridPointReached(int gridX, int gridY, PlayerEntity.Direction direction) {
-        ai.setPlayerGridX(gridX);
-        ai.setPlayerGridY(gridY);
-        ai.setPlayerDirection(direction);
+        if (gridX != playerGridX || gridY != playerGridY || direction != playerDirection) {
+            playerGridX = gridX;
+            playerGridY = gridY;
+            playerDirection = direction;
+            predictedTarget = -1;
+        }
     }
     
     @Override
@@ -81,17 +106,114 @@ public class GhostEntity extends Entity implements PlayerGridListener {
         skeleton.updateWorldTransform();
         animationState.apply(skeleton);
         
-        ai.step(delta, this, gameState);
+        //a moving ghost stays within a pixel of the grid point for a tick after
+        //its decision, so it only queues once per point
+        aiDelta += delta;
+        if (!aiPending) {
+            if (!isAtGridPoint()) {
+                decidedAtGridPoint = false;
+                stepAi();
+            } else if (!decidedAtGridPoint || MathUtils.isZero(getSpeed())) {
+                aiPending = true;
+                decidedAtGridPoint = false;
+                int gridX = (int) ((getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+                int gridY = (int) ((getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+                queuedX = gridX * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f;
+                queuedY = gridY * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f;
+                gameState.getAiScheduler().add(this);
+            } else {
+                stepAi();
+            }
+        }
         
         skeletonBounds.update(skeleton, true);
     }
+    
+    /**
+     * Steps the AI with the time passed since it last ran, applying the
+     * decision made by {@link #decideAi()} if there is one.
+     */
+    public void stepAi() {
+        boolean queued = aiPending;
+        if (queued) {
+            returnToQueuedCell();
+        }
+        aiPending = false;
+        ai.step(aiDelta, this, gameState);
+        aiDelta = 0.0f;
+        decided = false;
+        if (queued) {
+            decidedAtGridPoint = true;
+        }
+    }
+    
+    /**
+     * Makes the AI's decision for this grid point without applying it. Safe
+     * to call on a worker thread; see {@link AI#decide}.
+     */
+    public void decideAi() {
+        decision = ai.decide(aiDelta, this, gameState);
+        decided = true;
+    }
+    
+    /**
+     * Returns the decision for this grid point, making it now if
+     * {@link #decideAi()} has not run. Called by AI.step.
+     * @return {@link AI#KEEP} if the ghost already decided at this point.
+     */
+    public int takeDecision() {
+        int returnValue = AI.KEEP;
+        
+        if (!decidedAtGridPoint) {
+            if (!decided) {
+                decideAi();
+            }
+            returnValue = decision;
+        }
+        decided = false;
+        
+        return returnValue;
+    }
+    
+    /**
+     * Moves the ghost back onto the grid point it was queued at. A deferred
+     * ghost keeps its heading and may have left the point by the time its
+     * decision runs, which would otherwise drop the decision.
+     */
+    public void returnToQueuedCell() {
+        setPosition(queuedX, queuedY);
+    }
+    
+    /**
+     * Called while a decision is pending. Keeps the current heading unless it
+     * leads into a wall from this grid point.
+     */
+    public void holdHeading() {
+        if (isAtGridPoint()) {
+            int gridX = (int) ((getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+            int gridY = (int) ((getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+            int direction = GridDirection.fromAngle(getDirection());
+            if (direction == GridDirection.NONE || (gameState.getWalkability().getOpenDirections(gridX, gridY) & GridDirection.bit(direction)) == 0) {
+                setMotion(0.0f, 0.0f);
+            }
+        }
+    }
+    
+    private boolean isAtGridPoint() {
+        int gridX = (int) ((getX() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        int gridY = (int) ((getY() - LevelDesignerState.GRID_DIMENSION / 2.0f) / LevelDesignerState.GRID_DIMENSION);
+        
+        return MathUtils.isEqual(gridX * LevelDesignerState.GRID_DIMENSION, getX() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f) && MathUtils.isEqual(gridY * LevelDesignerState.GRID_DIMENSION, getY() - LevelDesignerState.GRID_DIMENSION / 2.0f, 1f);
+    }
 
     @Override
     public void act_end(float delta) {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        skeleton.setPosition(getInterpolatedX(alpha), getInterpolatedY(alpha));
+        skeleton.updateWorldTransform();
         getCore().getSkeletonRenderer().draw(getCore().getTwoColorPolygonBatch(), skeleton);
     }
 
@@ -109,6 +231,7 @@ public class GhostEntity extends Entity implements PlayerGridListener {
 
     public void setAi(AI ai) {
         this.ai = ai;
+        ai.enter(this);
     }
 
     public AI getPrimaryAI() {
@@ -135,4 +258,77 @@ public class GhostEntity extends Entity implements PlayerGridListener {
     public SkeletonBounds getSkeletonBounds() {
         return skeletonBounds;
     }
+
+    /**
+     * Random source for this ghost's decisions. Each ghost has its own so
+     * decisions can run in parallel and still replay the same way.
+     */
+    public RandomXS128 getRandom() {
+        return random;
+    }
+
+    public int getPlayerGridX() {
+        return playerGridX;
+    }
+
+    public int getPlayerGridY() {
+        return playerGridY;
+    }
+
+    public PlayerEntity.Direction getPlayerDirection() {
+        return playerDirection;
+    }
+
+    /**
+     * @return the cell CunningAI predicted the player will reach, indexed by
+     * x * height + y, or -1 if the player has changed cell or direction since
+     * it was predicted.
+     */
+    public int getPredictedTarget() {
+        return predictedTarget;
+    }
+
+    public void setPredictedTarget(int predictedTarget) {
+        this.predictedTarget = predictedTarget;
+    }
+
+    public float getDirectionTimer() {
+        return directionTimer;
+    }
+
+    public void setDirectionTimer(float directionTimer) {
+        this.directionTimer = directionTimer;
+    }
+
+    public float getStateTimer() {
+        return stateTimer;
+    }
+
+    public void setStateTimer(float stateTimer) {
+        this.stateTimer = stateTimer;
+    }
+
+    public boolean isHomeFound() {
+        return homeFound;
+    }
+
+    public void setHomeFound(boolean homeFound) {
+        this.homeFound = homeFound;
+    }
+
+    public float getHomeX() {
+        return homeX;
+    }
+
+    public void setHomeX(float homeX) {
+        this.homeX = homeX;
+    }
+
+    public float getHomeY() {
+        return homeY;
+    }
+
+    public void setHomeY(float homeY) {
+        this.homeY = homeY;
+    }
 }
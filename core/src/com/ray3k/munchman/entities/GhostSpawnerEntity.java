@@ -26,21 +26,30 @@ package com.ray3k.munchman.entities;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.ray3k.munchman.Entity;
-import com.ray3k.munchman.ai.AI;
+import com.ray3k.munchman.levels.SpawnSchedule;
 import com.ray3k.munchman.states.GameState;
 
-public class SpawnGhostTimerEntity extends Entity {
-    private float time;
+/**
+ * Releases the ghosts of a spawn schedule. A single entity handles every wave,
+ * so large swarms cost one check per wave each tick. Ghosts due at the start
+ * are spawned straight away.
+ */
+public class GhostSpawnerEntity extends Entity {
     private GameState gameState;
-    private AI primaryAI;
-    private String skin;
+    private SpawnSchedule schedule;
+    private int[] spawned;
+    private int remaining;
+    private float time;
     
-    public SpawnGhostTimerEntity(GameState gameState, float time, AI primaryAI, String skin) {
+    public GhostSpawnerEntity(GameState gameState, SpawnSchedule schedule) {
         super(gameState.getEntityManager(), gameState.getCore());
-        this.time = time;
         this.gameState = gameState;
-        this.primaryAI = primaryAI;
-        this.skin = skin;
+        this.schedule = schedule;
+        spawned = new int[schedule.getWaves().size];
+        remaining = schedule.getGhostCount();
+        time = 0.0f;
+        
+        spawnDue();
     }
     
     @Override
@@ -49,9 +58,21 @@ public class SpawnGhostTimerEntity extends Entity {
 
     @Override
     public void act(float delta) {
-        time -= delta;
-        if (time < 0) {
-            gameState.spawnGhost(primaryAI, skin);
+        time += delta;
+        spawnDue();
+    }
+    
+    private void spawnDue() {
+        for (int i = 0; i < spawned.length; i++) {
+            SpawnSchedule.Wave wave = schedule.getWaves().get(i);
+            while (spawned[i] < wave.getCount() && time >= wave.getDelay() + spawned[i] * wave.getInterval()) {
+                gameState.spawnGhost(wave.getAi(), wave.getSkin());
+                spawned[i]++;
+                remaining--;
+            }
+        }
+        
+        if (remaining <= 0) {
             dispose();
         }
     }
@@ -61,7 +82,7 @@ public class SpawnGhostTimerEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
     }
 
     @Override
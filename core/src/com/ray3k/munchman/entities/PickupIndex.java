@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.entities;
+
+import com.ray3k.munchman.Entity;
+
+/**
+ * Per cell index of the dots and power balls left in a level so the player
+ * only has to look at the cells it overlaps.
+ */
+public class PickupIndex {
+    public final static byte NONE = 0;
+    public final static byte DOT = 1;
+    public final static byte BALL = 2;
+    private final int width;
+    private final int height;
+    private final byte[] types;
+    private final Entity[] entities;
+    private final int[] counts;
+
+    public PickupIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        types = new byte[width * height];
+        entities = new Entity[width * height];
+        counts = new int[3];
+    }
+    
+    /**
+     * Adds a pickup to a cell. The entity may be null for pickups that are
+     * drawn by a layer instead of their own entity.
+     */
+    public void add(int x, int y, byte type, Entity entity) {
+        byte previous = types[x * height + y];
+        if (previous != NONE) {
+            counts[previous]--;
+        }
+        types[x * height + y] = type;
+        entities[x * height + y] = entity;
+        if (type != NONE) {
+            counts[type]++;
+        }
+    }
+    
+    public byte getType(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return NONE;
+        }
+        return types[x * height + y];
+    }
+    
+    public Entity getEntity(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return null;
+        }
+        return entities[x * height + y];
+    }
+    
+    /**
+     * Removes the pickup at a cell from the index.
+     * @return the removed entity, or null if the cell was empty or the pickup
+     * has no entity
+     */
+    public Entity remove(int x, int y) {
+        Entity returnValue = getEntity(x, y);
+        byte type = getType(x, y);
+        
+        if (type != NONE) {
+            counts[type]--;
+            types[x * height + y] = NONE;
+            entities[x * height + y] = null;
+        }
+        
+        return returnValue;
+    }
+    
+    public int getCount(byte type) {
+        return counts[type];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -24,7 +24,6 @@
 
 package com.ray3k.munchman.entities;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.MathUtils;
@@ -101,28 +100,28 @@ public class PlayerEntity extends Entity {
         animationState.apply(skeleton);
         
         if (!hit) {
-            if (Gdx.input.isKeyJustPressed(Keys.RIGHT)) {
+            if (gameState.getInputManager().isKeyJustPressed(Keys.RIGHT)) {
                 if (isGridEmpty(targetGridX + 1, targetGridY)) {
                     desDirection = Direction.RIGHT;
                     queuedDirection = Direction.NONE;
                 } else {
                     queuedDirection = Direction.RIGHT;
                 }
-            } else if (Gdx.input.isKeyJustPressed(Keys.LEFT)) {
+            } else if (gameState.getInputManager().isKeyJustPressed(Keys.LEFT)) {
                 if (isGridEmpty(targetGridX - 1, targetGridY)) {
                     desDirection = Direction.LEFT;
                     queuedDirection = Direction.NONE;
                 } else {
                     queuedDirection = Direction.LEFT;
                 }
-            } else if (Gdx.input.isKeyJustPressed(Keys.UP)) {
+            } else if (gameState.getInputManager().isKeyJustPressed(Keys.UP)) {
                 if (isGridEmpty(targetGridX, targetGridY + 1)) {
                     desDirection = Direction.UP;
                     queuedDirection = Direction.NONE;
                 } else {
                     queuedDirection = Direction.UP;
                 }
-            } else if (Gdx.input.isKeyJustPressed(Keys.DOWN)) {
+            } else if (gameState.getInputManager().isKeyJustPressed(Keys.DOWN)) {
                 if (isGridEmpty(targetGridX, targetGridY - 1)) {
                     desDirection = Direction.DOWN;
                     queuedDirection = Direction.NONE;
@@ -234,52 +233,58 @@ public class PlayerEntity extends Entity {
         
         skeletonBounds.update(skeleton, true);
         if (!hit) {
-            for (Entity entity : gameState.getEntityManager().getEntities()) {
-                if (entity instanceof DotEntity) {
-                    if (skeletonBounds.aabbContainsPoint(entity.getX() + LevelDesignerState.GRID_DIMENSION / 2.0f, entity.getY() + LevelDesignerState.GRID_DIMENSION / 2.0f)) {
-                        entity.dispose();
-                        gameState.addScore(10);
-                        gameState.playBallSound();
-                        if (DotEntity.dotCount <= 0) {
-                            new CongratulationsTimerEntity(gameState, 2.0f);
+            PickupIndex pickupIndex = gameState.getPickupIndex();
+            int minGridX = MathUtils.clamp(MathUtils.floor(skeletonBounds.getMinX() / LevelDesignerState.GRID_DIMENSION), 0, pickupIndex.getWidth() - 1);
+            int maxGridX = MathUtils.clamp(MathUtils.floor(skeletonBounds.getMaxX() / LevelDesignerState.GRID_DIMENSION), 0, pickupIndex.getWidth() - 1);
+            int minGridY = MathUtils.clamp(MathUtils.floor(skeletonBounds.getMinY() / LevelDesignerState.GRID_DIMENSION), 0, pickupIndex.getHeight() - 1);
+            int maxGridY = MathUtils.clamp(MathUtils.floor(skeletonBounds.getMaxY() / LevelDesignerState.GRID_DIMENSION), 0, pickupIndex.getHeight() - 1);
+            
+            for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+                for (int gridY = minGridY; gridY <= maxGridY; gridY++) {
+                    byte type = pickupIndex.getType(gridX, gridY);
+                    if (type != PickupIndex.NONE && skeletonBounds.aabbContainsPoint(gridX * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f, gridY * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f)) {
+                        Entity entity = pickupIndex.remove(gridX, gridY);
+                        if (entity != null) {
+                            entity.dispose();
                         }
-                    }
-                } else if (entity instanceof PowerBallEntity) {
-                    if (skeletonBounds.aabbContainsPoint(entity.getX() + LevelDesignerState.GRID_DIMENSION / 2.0f, entity.getY() + LevelDesignerState.GRID_DIMENSION / 2.0f)) {
-                        entity.dispose();
-                        gameState.makeGhostsScared();
-                        gameState.playBallSound();
-                    }
-                } else if (entity instanceof GhostEntity) {
-                    if (skeletonBounds.aabbIntersectsSkeleton(((GhostEntity) entity).getSkeletonBounds())) {
-                        if (((GhostEntity) entity).getAi() instanceof ScaredAI) {
-                            ((GhostEntity) entity).setAi(new RetreatAI());
-                            ((GhostEntity) entity).setSkin("dead");
-                            gameState.playGhostSound();
-                        } else if (!(((GhostEntity) entity).getAi() instanceof RetreatAI) && !(((GhostEntity) entity).getAi() instanceof SpawnAI)) {
-                            gameState.makeGhostsRandom();
-                            animationState.setAnimation(0, "die", false);
-                            setMotion(0.0f, 0.0f);
-                            skeleton.getRootBone().setRotation(0.0f);
-                            hit = true;
-                            gameState.playDeathSound();
+                        
+                        if (type == PickupIndex.DOT) {
+                            gameState.addScore(10);
+                            gameState.playBallSound();
+                            if (pickupIndex.getCount(PickupIndex.DOT) <= 0) {
+                                new CongratulationsTimerEntity(gameState, 2.0f);
+                            }
+                        } else if (type == PickupIndex.BALL) {
+                            gameState.makeGhostsScared();
+                            gameState.playBallSound();
                         }
                     }
                 }
             }
+            
+            Array<GhostEntity> ghosts = gameState.getGhosts();
+            for (int i = 0; i < ghosts.size; i++) {
+                GhostEntity ghost = ghosts.get(i);
+                if (skeletonBounds.aabbIntersectsSkeleton(ghost.getSkeletonBounds())) {
+                    if (ghost.getAi() instanceof ScaredAI) {
+                        ghost.setAi(RetreatAI.INSTANCE);
+                        ghost.setSkin("dead");
+                        gameState.playGhostSound();
+                    } else if (!(ghost.getAi() instanceof RetreatAI) && !(ghost.getAi() instanceof SpawnAI)) {
+                        gameState.makeGhostsRandom();
+                        animationState.setAnimation(0, "die", false);
+                        setMotion(0.0f, 0.0f);
+                        skeleton.getRootBone().setRotation(0.0f);
+                        hit = true;
+                        gameState.playDeathSound();
+                    }
+                }
+            }
         }
     }
     
     private boolean isGridEmpty(int x, int y) {
-        boolean returnValue = true;
-        
-        if (x < 0 || y < 0 || x > gameState.getGrid().length - 1 || y > gameState.getGrid()[0].length - 1) {
-            returnValue = false;
-        } else {
-            returnValue = gameState.getNavCells()[x][y].isWalkable();
-        }
-        
-        return returnValue;
+        return gameState.getWalkability().isWalkable(x, y);
     }
 
     @Override
@@ -287,7 +292,9 @@ public class PlayerEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        skeleton.setPosition(getInterpolatedX(alpha), getInterpolatedY(alpha));
+        skeleton.updateWorldTransform();
         getCore().getSkeletonRenderer().draw(getCore().getTwoColorPolygonBatch(), skeleton);
     }
 
@@ -70,7 +70,7 @@ public class PowerBallEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         getCore().getSkeletonRenderer().draw(getCore().getTwoColorPolygonBatch(), skeleton);
     }
 
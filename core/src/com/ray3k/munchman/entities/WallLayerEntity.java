@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.entities;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.IntArray;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.munchman.Core;
+import com.ray3k.munchman.Entity;
+import com.ray3k.munchman.states.GameState;
+import com.ray3k.munchman.states.LevelDesignerState;
+import java.nio.IntBuffer;
+
+/**
+ * Draws every wall of a level from baked textures. Walls are static, so their
+ * skeletons are rendered once into frame buffers by {@link #bake} and the maze
+ * is then drawn as one quad per tile. Tiles are as large as the GL allows,
+ * so most mazes fit in one.
+ */
+public class WallLayerEntity extends Entity {
+    private final static short[] TRIANGLES = {0, 1, 2, 2, 3, 0};
+    private final static int QUAD_SIZE = 24;
+    private Skeleton skeleton;
+    private GameState gameState;
+    private IntArray wallCells;
+    private Array<String> wallSkins;
+    private Array<FrameBuffer> frameBuffers;
+    private float[] vertices;
+
+    public WallLayerEntity(final GameState gameState) {
+        super(gameState.getEntityManager(), gameState.getCore());
+        this.gameState = gameState;
+        setDepth(100);
+        SkeletonData skeletonData = getCore().getAssetManager().get(Core.DATA_PATH + "/spine/wall.json", SkeletonData.class);
+        skeleton = new Skeleton(skeletonData);
+        skeleton.setSkin("single");
+        wallCells = new IntArray();
+        wallSkins = new Array<String>();
+        frameBuffers = new Array<FrameBuffer>();
+        vertices = new float[0];
+    }
+
+    @Override
+    public void create() {
+    }
+    
+    public void addWall(int gridX, int gridY, String skin) {
+        wallCells.add(gridX);
+        wallCells.add(gridY);
+        wallSkins.add(skin);
+    }
+    
+    /**
+     * Renders all added walls into frame buffers using the given tint. The
+     * maze is split into tiles no larger than GL_MAX_TEXTURE_SIZE.
+     */
+    public void bake(int gridWidth, int gridHeight, Color color) {
+        int width = (int) (gridWidth * LevelDesignerState.GRID_DIMENSION);
+        int height = (int) (gridHeight * LevelDesignerState.GRID_DIMENSION);
+        
+        disposeFrameBuffers();
+        int tileSize = getMaxTextureSize();
+        int columns = (width + tileSize - 1) / tileSize;
+        int rows = (height + tileSize - 1) / tileSize;
+        vertices = new float[columns * rows * QUAD_SIZE];
+        
+        skeleton.findSlot("wall").getDarkColor().set(color);
+        
+        float light = Color.WHITE.toFloatBits();
+        float dark = Color.BLACK.toFloatBits();
+        for (int column = 0; column < columns; column++) {
+            for (int row = 0; row < rows; row++) {
+                int tileX = column * tileSize;
+                int tileY = row * tileSize;
+                int tileWidth = Math.min(tileSize, width - tileX);
+                int tileHeight = Math.min(tileSize, height - tileY);
+                
+                int tile = frameBuffers.size;
+                frameBuffers.add(bakeTile(tileX, tileY, tileWidth, tileHeight));
+                setQuadVertex(tile, 0, tileX, tileY, light, dark, 0, 0);
+                setQuadVertex(tile, 1, tileX + tileWidth, tileY, light, dark, 1, 0);
+                setQuadVertex(tile, 2, tileX + tileWidth, tileY + tileHeight, light, dark, 1, 1);
+                setQuadVertex(tile, 3, tileX, tileY + tileHeight, light, dark, 0, 1);
+            }
+        }
+    }
+    
+    private FrameBuffer bakeTile(int tileX, int tileY, int tileWidth, int tileHeight) {
+        FrameBuffer returnValue = new FrameBuffer(Pixmap.Format.RGBA8888, tileWidth, tileHeight, false);
+        returnValue.getColorBufferTexture().setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        
+        TwoColorPolygonBatch batch = getCore().getTwoColorPolygonBatch();
+        returnValue.begin();
+        Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        batch.setProjectionMatrix(new Matrix4().setToOrtho2D(tileX, tileY, tileWidth, tileHeight));
+        batch.begin();
+        for (int i = 0; i < wallSkins.size; i++) {
+            float x = wallCells.get(i * 2) * LevelDesignerState.GRID_DIMENSION;
+            float y = wallCells.get(i * 2 + 1) * LevelDesignerState.GRID_DIMENSION;
+            
+            // Walls may overhang their cell, so neighbouring tiles draw them too.
+            if (x + 2 * LevelDesignerState.GRID_DIMENSION > tileX && x - LevelDesignerState.GRID_DIMENSION < tileX + tileWidth && y + 2 * LevelDesignerState.GRID_DIMENSION > tileY && y - LevelDesignerState.GRID_DIMENSION < tileY + tileHeight) {
+                skeleton.setSkin(wallSkins.get(i));
+                skeleton.setPosition(x, y);
+                skeleton.updateWorldTransform();
+                getCore().getSkeletonRenderer().draw(batch, skeleton);
+            }
+        }
+        batch.end();
+        returnValue.end();
+        
+        return returnValue;
+    }
+    
+    private static int getMaxTextureSize() {
+        IntBuffer buffer = BufferUtils.newIntBuffer(16);
+        Gdx.gl.glGetIntegerv(GL20.GL_MAX_TEXTURE_SIZE, buffer);
+        return buffer.get(0);
+    }
+    
+    private void setQuadVertex(int tile, int corner, float x, float y, float light, float dark, float u, float v) {
+        int offset = tile * QUAD_SIZE + corner * 6;
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = light;
+        vertices[offset + 3] = dark;
+        vertices[offset + 4] = u;
+        vertices[offset + 5] = v;
+    }
+    
+    private void disposeFrameBuffers() {
+        for (int i = 0; i < frameBuffers.size; i++) {
+            frameBuffers.get(i).dispose();
+        }
+        frameBuffers.clear();
+    }
+
+    @Override
+    public void act(float delta) {
+    }
+
+    @Override
+    public void act_end(float delta) {
+    }
+
+    @Override
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        TwoColorPolygonBatch batch = getCore().getTwoColorPolygonBatch();
+        for (int i = 0; i < frameBuffers.size; i++) {
+            batch.draw(frameBuffers.get(i).getColorBufferTexture(), vertices, i * QUAD_SIZE, QUAD_SIZE, TRIANGLES, 0, TRIANGLES.length);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        disposeFrameBuffers();
+    }
+
+    @Override
+    public void collision(Entity other) {
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Converts .lvl files to .lvlb next to the originals.
+ * Usage: LevelConverter file-or-directory...
+ */
+public class LevelConverter {
+    public static void main(String[] arg) {
+        if (arg.length == 0) {
+            System.err.println("Usage: LevelConverter file-or-directory...");
+            System.exit(1);
+        }
+        
+        for (String path : arg) {
+            FileHandle fileHandle = new FileHandle(path);
+            if (fileHandle.isDirectory()) {
+                for (FileHandle child : fileHandle.list("." + LevelReader.JSON_EXTENSION)) {
+                    convert(child);
+                }
+            } else {
+                convert(fileHandle);
+            }
+        }
+    }
+    
+    public static FileHandle convert(FileHandle fileHandle) {
+        FileHandle returnValue = fileHandle.sibling(fileHandle.nameWithoutExtension() + "." + LevelReader.BINARY_EXTENSION);
+        LevelData level = LevelReader.readJson(fileHandle);
+        LevelWriter.writeBinary(level, returnValue);
+        System.out.println(fileHandle.path() + " (" + fileHandle.length() + " bytes) -> " + returnValue.path() + " (" + returnValue.length() + " bytes)");
+        return returnValue;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.nio.ByteBuffer;
+
+/**
+ * The contents of a level, one byte per cell. Cells below {@link #WALL} are
+ * element types; walls are stored as {@link #WALL} plus the index of their
+ * skin in {@link #WALL_SKINS}.
+ */
+public class LevelData {
+    public final static byte EMPTY = 0;
+    public final static byte BALL = 1;
+    public final static byte GHOST_PEN = 2;
+    public final static byte MUNCH_MAN = 3;
+    public final static byte WALL = 32;
+    public final static int GHOST_PEN_WIDTH = 6;
+    public final static int GHOST_PEN_HEIGHT = 4;
+    public final static String[] WALL_SKINS = {"default", "bottom", "bottom-left", "bottom-right", "four-way", "horizontal", "left", "right", "single", "t-bottom", "t-left", "t-right", "t-top", "top", "top-left", "top-right", "vertical"};
+    private final int width;
+    private final int height;
+    private final ByteBuffer cells;
+
+    public LevelData(int width, int height) {
+        this(width, height, ByteBuffer.allocate(width * height));
+    }
+    
+    /**
+     * @param cells indexed by x * height + y from position 0. Not copied, so
+     * this may be a view of a mapped file.
+     */
+    public LevelData(int width, int height, ByteBuffer cells) {
+        if (cells.capacity() != width * height) {
+            throw new GdxRuntimeException("Expected " + width * height + " cells, found " + cells.capacity());
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+    }
+    
+    /**
+     * Converts the String[][] stored in .lvl files.
+     */
+    public static LevelData fromValues(String[][] values) {
+        LevelData returnValue = new LevelData(values.length, values[0].length);
+        
+        for (int x = 0; x < values.length; x++) {
+            for (int y = 0; y < values[x].length; y++) {
+                returnValue.cells.put(x * returnValue.height + y, encode(values[x][y]));
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    public String[][] toValues() {
+        String[][] returnValue = new String[width][height];
+        
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                returnValue[x][y] = decode(cells.get(x * height + y));
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    public static byte encode(String value) {
+        byte returnValue;
+        
+        if (value == null) {
+            returnValue = EMPTY;
+        } else if (value.startsWith("WALL")) {
+            returnValue = encodeWall(value.substring(4));
+        } else if (value.equals("BALL")) {
+            returnValue = BALL;
+        } else if (value.equals("GHOST_PEN")) {
+            returnValue = GHOST_PEN;
+        } else if (value.equals("MUNCH_MAN")) {
+            returnValue = MUNCH_MAN;
+        } else {
+            throw new GdxRuntimeException("Unknown level element: " + value);
+        }
+        
+        return returnValue;
+    }
+    
+    public static byte encodeWall(String skin) {
+        for (int i = 0; i < WALL_SKINS.length; i++) {
+            if (WALL_SKINS[i].equals(skin)) {
+                return (byte) (WALL + i);
+            }
+        }
+        throw new GdxRuntimeException("Unknown wall skin: " + skin);
+    }
+    
+    public static String decode(byte cell) {
+        String returnValue;
+        
+        if (cell >= WALL) {
+            returnValue = "WALL" + WALL_SKINS[cell - WALL];
+        } else if (cell == BALL) {
+            returnValue = "BALL";
+        } else if (cell == GHOST_PEN) {
+            returnValue = "GHOST_PEN";
+        } else if (cell == MUNCH_MAN) {
+            returnValue = "MUNCH_MAN";
+        } else {
+            returnValue = null;
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * Throws if a cell holds a code that is not a known element or wall skin.
+     */
+    public void validate() {
+        for (int i = 0; i < width * height; i++) {
+            byte cell = cells.get(i);
+            if (cell < EMPTY || cell > MUNCH_MAN && cell < WALL || cell >= WALL + WALL_SKINS.length) {
+                throw new GdxRuntimeException("Invalid cell " + cell + " at " + i / height + ", " + i % height);
+            }
+        }
+    }
+
+    /**
+     * Returns which cells can be walked on, indexed by x * height + y. Walls
+     * and the cells covered by the ghost pen are blocked.
+     */
+    public boolean[] computeWalkable() {
+        boolean[] returnValue = new boolean[width * height];
+        
+        for (int i = 0; i < returnValue.length; i++) {
+            returnValue[i] = cells.get(i) < WALL;
+        }
+        
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (cells.get(x * height + y) == GHOST_PEN) {
+                    for (int i = x; i < x + GHOST_PEN_WIDTH && i < width; i++) {
+                        for (int j = y; j < y + GHOST_PEN_HEIGHT && j < height; j++) {
+                            returnValue[i * height + j] = false;
+                        }
+                    }
+                }
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * Returns the index of the first {@link #MUNCH_MAN} cell or -1 if there
+     * is none.
+     */
+    public int findPlayer() {
+        for (int i = 0; i < width * height; i++) {
+            if (cells.get(i) == MUNCH_MAN) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the backing cells. Use absolute gets; the position is not used.
+     */
+    public ByteBuffer getCells() {
+        return cells;
+    }
+    
+    public byte getCell(int x, int y) {
+        return cells.get(x * height + y);
+    }
+    
+    public void setCell(int x, int y, byte cell) {
+        cells.put(x * height + y, cell);
+    }
+    
+    /**
+     * Returns the element type of a cell with walls collapsed to
+     * {@link #WALL}.
+     */
+    public byte getType(int x, int y) {
+        byte cell = cells.get(x * height + y);
+        return cell >= WALL ? WALL : cell;
+    }
+    
+    /**
+     * Returns the wall skin of a cell or null if it is not a wall.
+     */
+    public String getWallSkin(int x, int y) {
+        byte cell = cells.get(x * height + y);
+        return cell >= WALL ? WALL_SKINS[cell - WALL] : null;
+    }
+}
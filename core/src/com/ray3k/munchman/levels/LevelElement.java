@@ -129,7 +129,7 @@ public class LevelElement extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         getCore().getSkeletonRenderer().draw(getCore().getTwoColorPolygonBatch(), skeleton);
     }
 
@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.ray3k.munchman.navigation.ReachabilityMap;
+
+/**
+ * Summary of a level shown in the level select, along with the modification
+ * time and size of the file it was computed from.
+ */
+public class LevelMetadata {
+    private final String key;
+    private final long lastModified;
+    private final long size;
+    private final int width;
+    private final int height;
+    private final int dotCount;
+    private final int ballCount;
+    private final byte[] thumbnail;
+
+    /**
+     * @param thumbnail one bit per cell indexed by x * height + y, set for
+     * blocked cells.
+     */
+    public LevelMetadata(String key, long lastModified, long size, int width, int height, int dotCount, int ballCount, byte[] thumbnail) {
+        this.key = key;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.width = width;
+        this.height = height;
+        this.dotCount = dotCount;
+        this.ballCount = ballCount;
+        this.thumbnail = thumbnail;
+    }
+    
+    /**
+     * Counts the dots the same way the game places them: on every empty cell
+     * reachable from the player.
+     */
+    public static LevelMetadata compute(String key, long lastModified, long size, LevelData level) {
+        int width = level.getWidth();
+        int height = level.getHeight();
+        boolean[] walkable = level.computeWalkable();
+        
+        int dotCount = 0;
+        int ballCount = 0;
+        int player = level.findPlayer();
+        if (player != -1) {
+            ReachabilityMap reachability = new ReachabilityMap(walkable, width, height, player / height, player % height);
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    if (level.getCell(x, y) == LevelData.EMPTY && reachability.isReachable(x, y)) {
+                        dotCount++;
+                    }
+                }
+            }
+        }
+        
+        byte[] thumbnail = new byte[(width * height + 7) / 8];
+        for (int i = 0; i < walkable.length; i++) {
+            if (!walkable[i]) {
+                thumbnail[i >> 3] |= 1 << (i & 7);
+            }
+            if (level.getCells().get(i) == LevelData.BALL) {
+                ballCount++;
+            }
+        }
+        
+        return new LevelMetadata(key, lastModified, size, width, height, dotCount, ballCount, thumbnail);
+    }
+    
+    public boolean matches(long lastModified, long size) {
+        return this.lastModified == lastModified && this.size == size;
+    }
+    
+    public boolean isBlocked(int x, int y) {
+        int i = x * height + y;
+        return (thumbnail[i >> 3] & 1 << (i & 7)) != 0;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getDotCount() {
+        return dotCount;
+    }
+
+    public int getBallCount() {
+        return ballCount;
+    }
+
+    public byte[] getThumbnail() {
+        return thumbnail;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * {@link LevelMetadata} persisted between runs. Entries are keyed by level
+ * path and are recomputed on a background thread when the file's
+ * modification time or size changes.
+ */
+public class LevelMetadataCache implements Disposable {
+    private final static int MAGIC = 0x4D4D4C43;
+    private final static int VERSION = 1;
+    private final FileHandle cacheFile;
+    private final ObjectMap<String, LevelMetadata> entries;
+    private final AsyncExecutor executor;
+    private volatile boolean disposed;
+    
+    /**
+     * Notified on the render thread when a refresh computes an entry.
+     */
+    public static interface Listener {
+        public void updated(LevelMetadata metadata);
+    }
+
+    public LevelMetadataCache(FileHandle cacheFile) {
+        this.cacheFile = cacheFile;
+        entries = new ObjectMap<String, LevelMetadata>();
+        executor = new AsyncExecutor(1);
+        disposed = false;
+        load();
+    }
+    
+    public static String key(FileHandle level) {
+        return level.path();
+    }
+    
+    public static String key(FileHandle pack, String name) {
+        return pack.path() + "#" + name;
+    }
+    
+    /**
+     * Returns the last known metadata for a level, which may be stale until a
+     * refresh has checked it, or null if there is none.
+     */
+    public synchronized LevelMetadata get(String key) {
+        return entries.get(key);
+    }
+    
+    private synchronized void put(LevelMetadata metadata) {
+        entries.put(metadata.getKey(), metadata);
+    }
+    
+    /**
+     * Checks the given levels in the background, recomputing the entries that
+     * are missing or out of date and dropping entries for levels not listed.
+     * The cache is saved when anything changed, including when a refresh is
+     * cut short by {@link #dispose()}.
+     * 
+     * @param pack may be null.
+     */
+    public AsyncResult<Void> refresh(final Array<FileHandle> levels, final FileHandle packFile, final LevelPack pack, final Listener listener) {
+        return executor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() throws Exception {
+                boolean changed = false;
+                ObjectSet<String> keys = new ObjectSet<String>();
+                
+                if (pack != null) {
+                    long lastModified = packFile.lastModified();
+                    long size = packFile.length();
+                    for (int i = 0; i < pack.size() && !disposed; i++) {
+                        String key = key(packFile, pack.getName(i));
+                        keys.add(key);
+                        LevelMetadata metadata = get(key);
+                        if (metadata == null || !metadata.matches(lastModified, size)) {
+                            try {
+                                changed |= update(LevelMetadata.compute(key, lastModified, size, pack.getLevel(i)), listener);
+                            } catch (Exception e) {
+                                Gdx.app.error(LevelMetadataCache.class.getName(), "Error reading level: " + key, e);
+                            }
+                        }
+                    }
+                }
+                
+                for (int i = 0; i < levels.size && !disposed; i++) {
+                    FileHandle level = levels.get(i);
+                    String key = key(level);
+                    keys.add(key);
+                    long lastModified = level.lastModified();
+                    long size = level.length();
+                    LevelMetadata metadata = get(key);
+                    if (metadata == null || !metadata.matches(lastModified, size)) {
+                        try {
+                            changed |= update(LevelMetadata.compute(key, lastModified, size, LevelReader.read(level)), listener);
+                        } catch (Exception e) {
+                            Gdx.app.error(LevelMetadataCache.class.getName(), "Error reading level: " + level.path(), e);
+                        }
+                    }
+                }
+                
+                if (!disposed) {
+                    synchronized (LevelMetadataCache.this) {
+                        ObjectMap.Keys<String> iterator = entries.keys();
+                        while (iterator.hasNext()) {
+                            if (!keys.contains(iterator.next())) {
+                                iterator.remove();
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+                
+                if (changed) {
+                    save();
+                }
+                
+                return null;
+            }
+        });
+    }
+    
+    private boolean update(final LevelMetadata metadata, final Listener listener) {
+        put(metadata);
+        if (listener != null) {
+            Gdx.app.postRunnable(new Runnable() {
+                @Override
+                public void run() {
+                    listener.updated(metadata);
+                }
+            });
+        }
+        return true;
+    }
+    
+    private synchronized void load() {
+        entries.clear();
+        if (!cacheFile.exists()) {
+            return;
+        }
+        
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(cacheFile.read()));
+            if (input.readInt() != MAGIC || input.readShort() != VERSION) {
+                return;
+            }
+            
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = input.readUTF();
+                long lastModified = input.readLong();
+                long size = input.readLong();
+                int width = input.readShort() & 0xFFFF;
+                int height = input.readShort() & 0xFFFF;
+                int dotCount = input.readInt();
+                int ballCount = input.readInt();
+                byte[] thumbnail = new byte[(width * height + 7) / 8];
+                input.readFully(thumbnail);
+                entries.put(key, new LevelMetadata(key, lastModified, size, width, height, dotCount, ballCount, thumbnail));
+            }
+        } catch (IOException e) {
+            Gdx.app.error(LevelMetadataCache.class.getName(), "Discarding level metadata cache.", e);
+            entries.clear();
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+    
+    public synchronized void save() {
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(cacheFile.write(false)));
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeInt(entries.size);
+            for (LevelMetadata metadata : entries.values()) {
+                output.writeUTF(metadata.getKey());
+                output.writeLong(metadata.getLastModified());
+                output.writeLong(metadata.getSize());
+                output.writeShort(metadata.getWidth());
+                output.writeShort(metadata.getHeight());
+                output.writeInt(metadata.getDotCount());
+                output.writeInt(metadata.getBallCount());
+                output.write(metadata.getThumbnail());
+            }
+        } catch (IOException e) {
+            Gdx.app.error(LevelMetadataCache.class.getName(), "Error saving level metadata cache.", e);
+        } finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        executor.dispose();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Many binary levels in one memory mapped file. The header is the magic
+ * "MMLP", a version short and the level count, followed by an index of
+ * entries holding the UTF-8 name (length prefixed short), body offset and
+ * body length. Bodies are complete .lvlb files. Only the index is read when
+ * the pack is opened.
+ */
+public class LevelPack {
+    public final static String EXTENSION = "lvlp";
+    public final static int MAGIC = 0x4D4D4C50;
+    public final static int VERSION = 1;
+    private final static int HEADER_SIZE = 4 + 2 + 4;
+    private final static int ENTRY_SIZE = 2 + 4 + 4;
+    private final FileHandle file;
+    private final MappedByteBuffer buffer;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final ObjectIntMap<String> indices;
+
+    private LevelPack(FileHandle file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new GdxRuntimeException("Not a level pack.");
+        }
+        
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported level pack version: " + version);
+        }
+        
+        // every entry is at least a name length and an offset and length
+        int limit = buffer.limit();
+        int count = buffer.getInt(6);
+        if (count < 0 || count > (limit - HEADER_SIZE) / ENTRY_SIZE) {
+            throw new GdxRuntimeException("Invalid level pack count: " + count);
+        }
+        names = new String[count];
+        offsets = new int[count];
+        lengths = new int[count];
+        indices = new ObjectIntMap<String>(count);
+        
+        int position = HEADER_SIZE;
+        try {
+            for (int i = 0; i < count; i++) {
+                if ((long) position + ENTRY_SIZE > limit) {
+                    throw new GdxRuntimeException("Level pack index truncated at entry " + i);
+                }
+                int nameLength = buffer.getShort(position) & 0xFFFF;
+                if ((long) position + ENTRY_SIZE + nameLength > limit) {
+                    throw new GdxRuntimeException("Level pack index truncated at entry " + i);
+                }
+                byte[] name = new byte[nameLength];
+                ByteBuffer view = buffer.duplicate();
+                view.position(position + 2);
+                view.get(name);
+                names[i] = new String(name, "UTF-8");
+                position += 2 + nameLength;
+                
+                offsets[i] = buffer.getInt(position);
+                lengths[i] = buffer.getInt(position + 4);
+                position += 8;
+                
+                if (offsets[i] < position || lengths[i] < 0 || (long) offsets[i] + lengths[i] > limit) {
+                    throw new GdxRuntimeException("Level pack entry out of bounds: " + names[i]);
+                }
+                indices.put(names[i], i);
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+    
+    public static LevelPack open(FileHandle fileHandle) {
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(fileHandle.file(), "r");
+            FileChannel channel = file.getChannel();
+            return new LevelPack(fileHandle, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error opening level pack: " + fileHandle.path(), e);
+        } finally {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+    
+    /**
+     * Writes levels to a pack in the given order.
+     */
+    public static void write(FileHandle fileHandle, Array<String> names, Array<LevelData> levels) {
+        try {
+            byte[][] encodedNames = new byte[names.size][];
+            byte[][] bodies = new byte[levels.size][];
+            int indexSize = 0;
+            for (int i = 0; i < names.size; i++) {
+                encodedNames[i] = names.get(i).getBytes("UTF-8");
+                bodies[i] = LevelWriter.toBinary(levels.get(i));
+                indexSize += 2 + encodedNames[i].length + 8;
+            }
+            
+            int offset = HEADER_SIZE + indexSize;
+            int size = offset;
+            for (int i = 0; i < bodies.length; i++) {
+                size += bodies[i].length;
+            }
+            
+            ByteBuffer output = ByteBuffer.allocate(size);
+            output.putInt(MAGIC);
+            output.putShort((short) VERSION);
+            output.putInt(names.size);
+            for (int i = 0; i < names.size; i++) {
+                output.putShort((short) encodedNames[i].length);
+                output.put(encodedNames[i]);
+                output.putInt(offset);
+                output.putInt(bodies[i].length);
+                offset += bodies[i].length;
+            }
+            for (int i = 0; i < bodies.length; i++) {
+                output.put(bodies[i]);
+            }
+            
+            fileHandle.writeBytes(output.array(), false);
+        } catch (UnsupportedEncodingException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+    
+    public FileHandle getFile() {
+        return file;
+    }
+    
+    public int size() {
+        return names.length;
+    }
+    
+    public String getName(int index) {
+        return names[index];
+    }
+    
+    /**
+     * Returns the index of the named level or -1 if it is not in the pack.
+     */
+    public int indexOf(String name) {
+        return indices.get(name, -1);
+    }
+    
+    /**
+     * Reads a level straight from the mapped file. The returned cells are a
+     * view of the mapping.
+     */
+    public LevelData getLevel(int index) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offsets[index] + lengths[index]);
+        body.position(offsets[index]);
+        return LevelReader.readBinary(body.slice());
+    }
+}
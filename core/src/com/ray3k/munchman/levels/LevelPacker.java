@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Packs every .lvl and .lvlb file in a directory into a {@link LevelPack},
+ * sorted by name. A .lvlb wins over a .lvl of the same name.
+ * Usage: LevelPacker directory output.lvlp
+ */
+public class LevelPacker {
+    public static void main(String[] arg) {
+        if (arg.length != 2) {
+            System.err.println("Usage: LevelPacker directory output." + LevelPack.EXTENSION);
+            System.exit(1);
+        }
+        
+        FileHandle output = new FileHandle(arg[1]);
+        int count = pack(new FileHandle(arg[0]), output);
+        System.out.println("Packed " + count + " levels into " + output.path() + " (" + output.length() + " bytes)");
+    }
+    
+    public static int pack(FileHandle directory, FileHandle output) {
+        Array<String> names = new Array<String>();
+        for (FileHandle file : directory.list()) {
+            String extension = file.extension();
+            if (extension.equalsIgnoreCase(LevelReader.BINARY_EXTENSION) || extension.equalsIgnoreCase(LevelReader.JSON_EXTENSION) && !file.sibling(file.nameWithoutExtension() + "." + LevelReader.BINARY_EXTENSION).exists()) {
+                names.add(file.name());
+            }
+        }
+        names.sort();
+        
+        Array<String> levelNames = new Array<String>();
+        Array<LevelData> levels = new Array<LevelData>();
+        for (String name : names) {
+            FileHandle file = directory.child(name);
+            levelNames.add(file.nameWithoutExtension());
+            levels.add(LevelReader.read(file));
+        }
+        
+        LevelPack.write(output, levelNames, levels);
+        return levels.size;
+    }
+}
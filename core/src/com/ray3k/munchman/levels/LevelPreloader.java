@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Prepares the highlighted level on a worker thread so starting the game only
+ * has to create entities. Only the most recent request is kept; requests that
+ * are replaced before the worker reaches them are skipped.
+ */
+public class LevelPreloader implements Disposable {
+    private final AsyncExecutor executor;
+    private volatile String pendingKey;
+    private AsyncResult<PreparedLevel> pendingResult;
+    private boolean pendingNextHopTable;
+
+    public LevelPreloader() {
+        executor = new AsyncExecutor(1);
+    }
+    
+    public void preload(final FileHandle fileHandle, boolean nextHopTableEnabled) {
+        submit(LevelMetadataCache.key(fileHandle), nextHopTableEnabled, new LevelSource() {
+            @Override
+            public LevelData read() {
+                return LevelReader.read(fileHandle);
+            }
+        });
+    }
+    
+    public void preload(final LevelPack pack, final int index, boolean nextHopTableEnabled) {
+        submit(LevelMetadataCache.key(pack.getFile(), pack.getName(index)), nextHopTableEnabled, new LevelSource() {
+            @Override
+            public LevelData read() {
+                return pack.getLevel(index);
+            }
+        });
+    }
+    
+    private interface LevelSource {
+        public LevelData read();
+    }
+    
+    private synchronized void submit(final String key, final boolean nextHopTableEnabled, final LevelSource source) {
+        if (key.equals(pendingKey) && pendingNextHopTable == nextHopTableEnabled) {
+            return;
+        }
+        
+        pendingKey = key;
+        pendingNextHopTable = nextHopTableEnabled;
+        pendingResult = executor.submit(new AsyncTask<PreparedLevel>() {
+            @Override
+            public PreparedLevel call() throws Exception {
+                if (!key.equals(pendingKey)) {
+                    return null;
+                }
+                return PreparedLevel.prepare(source.read(), nextHopTableEnabled);
+            }
+        });
+    }
+    
+    /**
+     * Returns the prepared level for a key, waiting for the worker if it is
+     * still busy with it. Returns null if a different level was preloaded or
+     * preparing failed, in which case the caller should prepare it itself.
+     * The pending request is cleared either way.
+     */
+    public synchronized PreparedLevel take(String key, boolean nextHopTableEnabled) {
+        PreparedLevel returnValue = null;
+        
+        if (pendingResult != null && key.equals(pendingKey) && pendingNextHopTable == nextHopTableEnabled) {
+            try {
+                returnValue = pendingResult.get();
+            } catch (GdxRuntimeException e) {
+                Gdx.app.error(LevelPreloader.class.getName(), "Error preloading level: " + key, e);
+            }
+        }
+        
+        pendingKey = null;
+        pendingResult = null;
+        
+        return returnValue;
+    }
+
+    @Override
+    public void dispose() {
+        pendingKey = null;
+        executor.dispose();
+    }
+}
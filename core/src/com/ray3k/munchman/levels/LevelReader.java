@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Json;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads levels in either format, chosen by file extension.
+ */
+public class LevelReader {
+    public final static String JSON_EXTENSION = "lvl";
+    public final static String BINARY_EXTENSION = "lvlb";
+    /**
+     * "MMLB" in ASCII.
+     */
+    public final static int MAGIC = 0x4D4D4C42;
+    public final static int VERSION = 1;
+    /**
+     * Magic, version, width and height.
+     */
+    public final static int HEADER_SIZE = 4 + 2 + 2 + 2;
+    
+    public static LevelData read(FileHandle fileHandle) {
+        LevelData returnValue;
+        
+        if (fileHandle.extension().equalsIgnoreCase(BINARY_EXTENSION)) {
+            returnValue = readBinary(fileHandle.readBytes(), 0);
+        } else {
+            returnValue = readJson(fileHandle);
+        }
+        
+        return returnValue;
+    }
+    
+    public static LevelData readJson(FileHandle fileHandle) {
+        Json json = new Json();
+        return LevelData.fromValues(json.fromJson(String[][].class, fileHandle));
+    }
+    
+    /**
+     * Reads a binary level: a big endian header of the magic number, version,
+     * width and height as shorts, followed by one byte per cell ordered by
+     * x * height + y.
+     */
+    public static LevelData readBinary(byte[] bytes, int offset) {
+        return readBinary(ByteBuffer.wrap(bytes, offset, bytes.length - offset).slice());
+    }
+    
+    /**
+     * Reads a binary level from position 0 of the buffer to its limit. The
+     * cells are a view of the buffer and are not copied.
+     */
+    public static LevelData readBinary(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE) {
+            throw new GdxRuntimeException("Level file is too short.");
+        }
+        
+        if (buffer.getInt(0) != MAGIC) {
+            throw new GdxRuntimeException("Not a binary level file.");
+        }
+        
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported level version: " + version);
+        }
+        
+        int width = buffer.getShort(6) & 0xFFFF;
+        int height = buffer.getShort(8) & 0xFFFF;
+        if (width <= 0 || height <= 0 || buffer.limit() - HEADER_SIZE < (long) width * height) {
+            throw new GdxRuntimeException("Invalid level dimensions: " + width + "x" + height);
+        }
+        
+        ByteBuffer cells = buffer.duplicate();
+        cells.limit(HEADER_SIZE + width * height);
+        cells.position(HEADER_SIZE);
+        LevelData returnValue = new LevelData(width, height, cells.slice());
+        returnValue.validate();
+        
+        return returnValue;
+    }
+}
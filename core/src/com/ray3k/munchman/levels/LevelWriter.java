@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes levels in the formats read by {@link LevelReader}.
+ */
+public class LevelWriter {
+    private final static int MAX_DIMENSION = 0xFFFF;
+    
+    public static void write(LevelData level, FileHandle fileHandle) {
+        if (fileHandle.extension().equalsIgnoreCase(LevelReader.BINARY_EXTENSION)) {
+            writeBinary(level, fileHandle);
+        } else {
+            writeJson(level, fileHandle);
+        }
+    }
+    
+    public static void writeJson(LevelData level, FileHandle fileHandle) {
+        Json json = new Json();
+        fileHandle.writeString(json.toJson(level.toValues()), false);
+    }
+    
+    public static void writeBinary(LevelData level, FileHandle fileHandle) {
+        fileHandle.writeBytes(toBinary(level), false);
+    }
+    
+    public static byte[] toBinary(LevelData level) {
+        if (level.getWidth() > MAX_DIMENSION || level.getHeight() > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Level is too large for the binary format: " + level.getWidth() + "x" + level.getHeight());
+        }
+        
+        byte[] returnValue = new byte[LevelReader.HEADER_SIZE + level.getWidth() * level.getHeight()];
+        writeInt(returnValue, 0, LevelReader.MAGIC);
+        writeShort(returnValue, 4, LevelReader.VERSION);
+        writeShort(returnValue, 6, level.getWidth());
+        writeShort(returnValue, 8, level.getHeight());
+        ByteBuffer cells = level.getCells().duplicate();
+        cells.clear();
+        cells.get(returnValue, LevelReader.HEADER_SIZE, level.getWidth() * level.getHeight());
+        
+        return returnValue;
+    }
+    
+    static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+    
+    static void writeShort(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 8);
+        bytes[offset + 1] = (byte) value;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.ray3k.munchman.navigation.DistanceField;
+import com.ray3k.munchman.navigation.NextHopTable;
+import com.ray3k.munchman.navigation.ReachabilityMap;
+import com.ray3k.munchman.navigation.WalkabilityMap;
+import org.xguzm.pathfinding.grid.GridCell;
+import org.xguzm.pathfinding.grid.NavigationGrid;
+
+/**
+ * A parsed level with its navigation structures built, ready for
+ * {@link com.ray3k.munchman.states.GameState} to create entities from. Nothing
+ * here needs GL, so it can be prepared on any thread. Each instance is meant
+ * to start one game; the navigation structures are mutable.
+ */
+public class PreparedLevel {
+    private final LevelData level;
+    private final GridCell[][] navCells;
+    private final NavigationGrid<GridCell> navGrid;
+    private final WalkabilityMap walkability;
+    private final int playerX;
+    private final int playerY;
+    private final DistanceField distanceField;
+    private final ReachabilityMap reachability;
+    private final boolean nextHopTableEnabled;
+    private final NextHopTable nextHopTable;
+
+    private PreparedLevel(LevelData level, boolean nextHopTableEnabled) {
+        this.level = level;
+        this.nextHopTableEnabled = nextHopTableEnabled;
+        
+        int width = level.getWidth();
+        int height = level.getHeight();
+        boolean[] walkable = level.computeWalkable();
+        navCells = new GridCell[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                navCells[x][y] = new GridCell(x, y, walkable[x * height + y]);
+            }
+        }
+        navGrid = new NavigationGrid<GridCell>(navCells, true);
+        walkability = new WalkabilityMap(walkable, width, height);
+        
+        int player = level.findPlayer();
+        playerX = player == -1 ? 0 : player / height;
+        playerY = player == -1 ? 0 : player % height;
+        
+        distanceField = new DistanceField(navCells);
+        distanceField.setSource(playerX, playerY);
+        reachability = new ReachabilityMap(walkable, width, height, playerX, playerY);
+        
+        if (nextHopTableEnabled) {
+            nextHopTable = NextHopTable.build(navCells, NextHopTable.DEFAULT_MAX_BYTES);
+        } else {
+            nextHopTable = null;
+        }
+    }
+    
+    public static PreparedLevel prepare(LevelData level, boolean nextHopTableEnabled) {
+        return new PreparedLevel(level, nextHopTableEnabled);
+    }
+
+    public LevelData getLevel() {
+        return level;
+    }
+
+    public GridCell[][] getNavCells() {
+        return navCells;
+    }
+
+    public NavigationGrid<GridCell> getNavGrid() {
+        return navGrid;
+    }
+
+    public WalkabilityMap getWalkability() {
+        return walkability;
+    }
+
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    public DistanceField getDistanceField() {
+        return distanceField;
+    }
+
+    public ReachabilityMap getReachability() {
+        return reachability;
+    }
+
+    public boolean isNextHopTableEnabled() {
+        return nextHopTableEnabled;
+    }
+
+    /**
+     * @return the table, or null if it was disabled or too large.
+     */
+    public NextHopTable getNextHopTable() {
+        return nextHopTable;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.ray3k.munchman.ai.AI;
+import com.ray3k.munchman.ai.AggressiveAI;
+import com.ray3k.munchman.ai.CunningAI;
+import com.ray3k.munchman.ai.RandomAI;
+
+/**
+ * Waves of ghosts released from the ghost pen. A level can provide its own in a
+ * JSON file next to it with the same name and the {@link #EXTENSION}
+ * extension:
+ * <pre>
+ * {"waves": [
+ *     {"delay": 0, "ai": "random", "skin": "orange"},
+ *     {"delay": 3, "ai": "aggressive", "skin": "red"},
+ *     {"delay": 12, "count": 100, "interval": 0.1, "ai": "cunning", "skin": "blue"}
+ * ]}
+ * </pre>
+ * Delays and intervals are in seconds. Levels without one use
+ * {@link #DEFAULT}.
+ */
+public class SpawnSchedule {
+    public final static String EXTENSION = "spawn";
+    private final static ObjectMap<String, AI> AIS = new ObjectMap<String, AI>();
+    public final static SpawnSchedule DEFAULT;
+    private final Array<Wave> waves;
+    
+    static {
+        AIS.put("random", RandomAI.INSTANCE);
+        AIS.put("aggressive", AggressiveAI.INSTANCE);
+        AIS.put("cunning", CunningAI.INSTANCE);
+        
+        Array<Wave> waves = new Array<Wave>();
+        waves.add(new Wave(0, 1, 0, RandomAI.INSTANCE, "orange"));
+        waves.add(new Wave(3, 1, 0, AggressiveAI.INSTANCE, "red"));
+        waves.add(new Wave(6, 1, 0, CunningAI.INSTANCE, "blue"));
+        waves.add(new Wave(9, 1, 0, RandomAI.INSTANCE, "pink"));
+        DEFAULT = new SpawnSchedule(waves);
+    }
+
+    public SpawnSchedule(Array<Wave> waves) {
+        this.waves = waves;
+    }
+    
+    public static SpawnSchedule read(FileHandle fileHandle) {
+        JsonValue root = new JsonReader().parse(fileHandle);
+        JsonValue values = root.get("waves");
+        if (values == null) {
+            throw new GdxRuntimeException("No waves in spawn schedule: " + fileHandle.path());
+        }
+        
+        Array<Wave> waves = new Array<Wave>();
+        for (JsonValue value = values.child; value != null; value = value.next) {
+            String name = value.getString("ai", "random");
+            AI ai = AIS.get(name);
+            if (ai == null) {
+                throw new GdxRuntimeException("Unknown ghost AI: " + name);
+            }
+            waves.add(new Wave(value.getFloat("delay", 0), value.getInt("count", 1), value.getFloat("interval", 0), ai, value.getString("skin", "orange")));
+        }
+        
+        return new SpawnSchedule(waves);
+    }
+    
+    /**
+     * @return the schedule in the given file, or {@link #DEFAULT} if it does
+     * not exist.
+     */
+    public static SpawnSchedule readOrDefault(FileHandle fileHandle) {
+        SpawnSchedule returnValue = DEFAULT;
+        
+        if (fileHandle.exists()) {
+            returnValue = read(fileHandle);
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * @return the schedule file belonging to a level file.
+     */
+    public static FileHandle fileFor(FileHandle levelFile) {
+        return levelFile.sibling(levelFile.nameWithoutExtension() + "." + EXTENSION);
+    }
+
+    public Array<Wave> getWaves() {
+        return waves;
+    }
+    
+    public int getGhostCount() {
+        int returnValue = 0;
+        
+        for (int i = 0; i < waves.size; i++) {
+            returnValue += waves.get(i).getCount();
+        }
+        
+        return returnValue;
+    }
+    
+    public static class Wave {
+        private final float delay;
+        private final int count;
+        private final float interval;
+        private final AI ai;
+        private final String skin;
+
+        public Wave(float delay, int count, float interval, AI ai, String skin) {
+            this.delay = delay;
+            this.count = count;
+            this.interval = interval;
+            this.ai = ai;
+            this.skin = skin;
+        }
+
+        public float getDelay() {
+            return delay;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return seconds between ghosts of the same wave.
+         */
+        public float getInterval() {
+            return interval;
+        }
+
+        public AI getAi() {
+            return ai;
+        }
+
+        public String getSkin() {
+            return skin;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.navigation;
+
+import com.ray3k.munchman.entities.PlayerEntity;
+import com.ray3k.munchman.entities.PlayerGridListener;
+import org.xguzm.pathfinding.grid.GridCell;
+
+/**
+ * Breadth first distances from the player's cell to every walkable cell. The
+ * field is rebuilt only when the player reaches a new cell, after which any AI
+ * can find its next step towards the player by comparing four neighbours.
+ */
+public class DistanceField implements PlayerGridListener {
+    public final static int UNREACHABLE = Integer.MAX_VALUE;
+    private final int width;
+    private final int height;
+    private final boolean[] walkable;
+    private final int[] distances;
+    private final int[] queue;
+    private int sourceX;
+    private int sourceY;
+
+    public DistanceField(GridCell[][] navCells) {
+        width = navCells.length;
+        height = navCells[0].length;
+        walkable = new boolean[width * height];
+        distances = new int[width * height];
+        queue = new int[width * height];
+        
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                walkable[x * height + y] = navCells[x][y].isWalkable();
+            }
+        }
+        
+        sourceX = -1;
+        sourceY = -1;
+    }
+
+    @Override
+    public void newGridPointReached(int gridX, int gridY, PlayerEntity.Direction direction) {
+        setSource(gridX, gridY);
+    }
+    
+    public void setSource(int x, int y) {
+        if (x != sourceX || y != sourceY) {
+            sourceX = x;
+            sourceY = y;
+            update();
+        }
+    }
+    
+    private void update() {
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = UNREACHABLE;
+        }
+        
+        if (!isWalkable(sourceX, sourceY)) {
+            return;
+        }
+        
+        int head = 0;
+        int tail = 0;
+        int source = sourceX * height + sourceY;
+        distances[source] = 0;
+        queue[tail++] = source;
+        
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / height;
+            int y = cell % height;
+            int distance = distances[cell] + 1;
+            
+            for (int direction = 0; direction < GridDirection.COUNT; direction++) {
+                int nextX = x + GridDirection.offsetX(direction);
+                int nextY = y + GridDirection.offsetY(direction);
+                if (isWalkable(nextX, nextY)) {
+                    int next = nextX * height + nextY;
+                    if (distances[next] == UNREACHABLE) {
+                        distances[next] = distance;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+    
+    public int getDistance(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return UNREACHABLE;
+        }
+        return distances[x * height + y];
+    }
+    
+    /**
+     * Returns the {@link GridDirection} of the neighbour that is one step closer
+     * to the player, or {@link GridDirection#NONE} if the cell is the player's
+     * cell or cannot reach it.
+     */
+    public int getNextDirection(int x, int y) {
+        int best = getDistance(x, y);
+        int returnValue = GridDirection.NONE;
+        
+        if (best != UNREACHABLE) {
+            for (int direction = 0; direction < GridDirection.COUNT; direction++) {
+                int distance = getDistance(x + GridDirection.offsetX(direction), y + GridDirection.offsetY(direction));
+                if (distance < best) {
+                    best = distance;
+                    returnValue = direction;
+                }
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    private boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && walkable[x * height + y];
+    }
+
+    public int getSourceX() {
+        return sourceX;
+    }
+
+    public int getSourceY() {
+        return sourceY;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.navigation;
+
+import java.util.Random;
+
+/**
+ * Integer encoding of the four grid directions shared by the navigation
+ * structures. The order matches the choices used by the AI classes.
+ */
+public final class GridDirection {
+    public final static int NONE = -1;
+    public final static int RIGHT = 0;
+    public final static int LEFT = 1;
+    public final static int UP = 2;
+    public final static int DOWN = 3;
+    public final static int COUNT = 4;
+    private final static float[] ANGLES = {0.0f, 180.0f, 90.0f, 270.0f};
+    private final static int[] OFFSET_X = {1, -1, 0, 0};
+    private final static int[] OFFSET_Y = {0, 0, 1, -1};
+    
+    private GridDirection() {
+    }
+    
+    public static float toAngle(int direction) {
+        return ANGLES[direction];
+    }
+    
+    public static int offsetX(int direction) {
+        return OFFSET_X[direction];
+    }
+    
+    public static int offsetY(int direction) {
+        return OFFSET_Y[direction];
+    }
+    
+    public static int opposite(int direction) {
+        return direction ^ 1;
+    }
+    
+    public static int bit(int direction) {
+        return 1 << direction;
+    }
+    
+    /**
+     * @return the direction within one degree of the angle, or NONE.
+     */
+    public static int fromAngle(float angle) {
+        int returnValue = NONE;
+        
+        for (int direction = 0; direction < COUNT; direction++) {
+            if (Math.abs(angle - ANGLES[direction]) <= 1.0f) {
+                returnValue = direction;
+                break;
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * Picks uniformly among the directions set in the mask.
+     * @return the direction, or NONE if the mask is empty.
+     */
+    public static int pick(int mask, Random random) {
+        int returnValue = NONE;
+        
+        int count = Integer.bitCount(mask);
+        if (count > 0) {
+            int skip = random.nextInt(count);
+            for (int direction = 0; direction < COUNT; direction++) {
+                if ((mask & bit(direction)) != 0) {
+                    if (skip == 0) {
+                        returnValue = direction;
+                        break;
+                    }
+                    skip--;
+                }
+            }
+        }
+        
+        return returnValue;
+    }
+}
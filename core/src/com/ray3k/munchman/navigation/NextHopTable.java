@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.navigation;
+
+import org.xguzm.pathfinding.grid.GridCell;
+
+/**
+ * All-pairs next step table for a static maze. Every walkable source and
+ * target pair stores the {@link GridDirection} of the first step on a shortest
+ * path in a single byte, so a path query becomes one array read. The table
+ * grows with the square of the walkable cell count, so {@link #build} refuses
+ * to create it past a memory cap and callers fall back to a path finder.
+ */
+public class NextHopTable {
+    public final static int HERE = 4;
+    public final static int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    private final int width;
+    private final int height;
+    private final int[] nodes;
+    private final int nodeCount;
+    private final byte[] table;
+
+    private NextHopTable(int width, int height, int[] nodes, int nodeCount) {
+        this.width = width;
+        this.height = height;
+        this.nodes = nodes;
+        this.nodeCount = nodeCount;
+        table = new byte[nodeCount * nodeCount];
+    }
+    
+    /**
+     * Builds the table for the given navigation cells.
+     * @return the table, or null if it would need more than maxBytes
+     */
+    public static NextHopTable build(GridCell[][] navCells, int maxBytes) {
+        int width = navCells.length;
+        int height = navCells[0].length;
+        int[] nodes = new int[width * height];
+        int nodeCount = 0;
+        
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (navCells[x][y].isWalkable()) {
+                    nodes[x * height + y] = nodeCount++;
+                } else {
+                    nodes[x * height + y] = -1;
+                }
+            }
+        }
+        
+        if ((long) nodeCount * nodeCount > maxBytes) {
+            return null;
+        }
+        
+        NextHopTable returnValue = new NextHopTable(width, height, nodes, nodeCount);
+        returnValue.fill();
+        return returnValue;
+    }
+    
+    private void fill() {
+        int[] queue = new int[width * height];
+        
+        for (int i = 0; i < table.length; i++) {
+            table[i] = GridDirection.NONE;
+        }
+        
+        for (int target = 0; target < width * height; target++) {
+            int targetNode = nodes[target];
+            if (targetNode == -1) {
+                continue;
+            }
+            
+            int offset = targetNode * nodeCount;
+            table[offset + targetNode] = HERE;
+            
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = target;
+            
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell / height;
+                int y = cell % height;
+                
+                for (int direction = 0; direction < GridDirection.COUNT; direction++) {
+                    int nextX = x + GridDirection.offsetX(direction);
+                    int nextY = y + GridDirection.offsetY(direction);
+                    if (nextX >= 0 && nextY >= 0 && nextX < width && nextY < height) {
+                        int next = nextX * height + nextY;
+                        int nextNode = nodes[next];
+                        if (nextNode != -1 && table[offset + nextNode] == GridDirection.NONE) {
+                            table[offset + nextNode] = (byte) GridDirection.opposite(direction);
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the {@link GridDirection} of the first step from one cell to
+     * another, {@link #HERE} if both are the same cell, or
+     * {@link GridDirection#NONE} if the target cannot be reached.
+     */
+    public int getNextDirection(int fromX, int fromY, int toX, int toY) {
+        if (fromX < 0 || fromY < 0 || fromX >= width || fromY >= height || toX < 0 || toY < 0 || toX >= width || toY >= height) {
+            return GridDirection.NONE;
+        }
+        
+        int source = nodes[fromX * height + fromY];
+        int target = nodes[toX * height + toY];
+        if (source == -1 || target == -1) {
+            return GridDirection.NONE;
+        }
+        
+        return table[target * nodeCount + source];
+    }
+    
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    public int getSizeInBytes() {
+        return table.length;
+    }
+}
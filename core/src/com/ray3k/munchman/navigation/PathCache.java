@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman.navigation;
+
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Least recently used cache of path query results, keyed by source and target
+ * cell. Paths in a static maze never change, so entries stay valid until the
+ * level is unloaded; the cache only bounds how many are kept. Used in place of
+ * a {@link NextHopTable} when the level is too large for one.
+ */
+public class PathCache {
+    public final static int DEFAULT_CAPACITY = 4096;
+    /**
+     * Returned by {@link #get} when the pair is not cached. Distinct from
+     * {@link GridDirection#NONE}, which is a valid cached result.
+     */
+    public final static int MISSING = -2;
+    private final static int END = -1;
+    private final int cellCount;
+    private final int capacity;
+    private final IntIntMap slots;
+    private final int[] keys;
+    private final byte[] directions;
+    private final int[] previous;
+    private final int[] next;
+    private int head;
+    private int tail;
+    private int size;
+    private int hits;
+    private int misses;
+
+    /**
+     * @param cellCount width * height of the level. See {@link #supports(int)}.
+     */
+    public PathCache(int cellCount, int capacity) {
+        this.cellCount = cellCount;
+        this.capacity = capacity;
+        slots = new IntIntMap(capacity * 2);
+        keys = new int[capacity];
+        directions = new byte[capacity];
+        previous = new int[capacity];
+        next = new int[capacity];
+        clear();
+    }
+    
+    /**
+     * @return true if every pair of cells in a level this size fits an int key.
+     */
+    public static boolean supports(int cellCount) {
+        return (long) cellCount * cellCount <= Integer.MAX_VALUE;
+    }
+    
+    /**
+     * @param from source cell, indexed by x * height + y.
+     * @param to target cell, indexed by x * height + y.
+     * @return the cached {@link GridDirection}, or {@link #MISSING}.
+     */
+    public int get(int from, int to) {
+        int returnValue = MISSING;
+        
+        int slot = slots.get(from * cellCount + to, END);
+        if (slot != END) {
+            hits++;
+            moveToHead(slot);
+            returnValue = directions[slot];
+        } else {
+            misses++;
+        }
+        
+        return returnValue;
+    }
+    
+    public void put(int from, int to, int direction) {
+        int key = from * cellCount + to;
+        int slot = slots.get(key, END);
+        
+        if (slot == END) {
+            if (size < capacity) {
+                slot = size++;
+            } else {
+                slot = tail;
+                unlink(slot);
+                slots.remove(keys[slot], END);
+            }
+            keys[slot] = key;
+            slots.put(key, slot);
+        } else {
+            unlink(slot);
+        }
+        
+        directions[slot] = (byte) direction;
+        link(slot);
+    }
+    
+    public final void clear() {
+        slots.clear();
+        head = END;
+        tail = END;
+        size = 0;
+        hits = 0;
+        misses = 0;
+    }
+    
+    private void moveToHead(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            link(slot);
+        }
+    }
+    
+    private void link(int slot) {
+        previous[slot] = END;
+        next[slot] = head;
+        if (head != END) {
+            previous[head] = slot;
+        }
+        head = slot;
+        if (tail == END) {
+            tail = slot;
+        }
+    }
+    
+    private void unlink(int slot) {
+        if (previous[slot] != END) {
+            next[previous[slot]] = next[slot];
+        } else {
+            head = next[slot];
+        }
+        
+        if (next[slot] != END) {
+            previous[next[slot]] = previous[slot];
+        } else {
+            tail = previous[slot];
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+}
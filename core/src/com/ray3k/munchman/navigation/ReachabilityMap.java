@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.navigation;
+
+import com.badlogic.gdx.utils.Bits;
+import org.xguzm.pathfinding.grid.GridCell;
+
+/**
+ * Bitmask of the cells that can be reached from a starting cell, built with a
+ * single flood fill over the walkable navigation cells.
+ */
+public class ReachabilityMap {
+    private final int width;
+    private final int height;
+    private final Bits reachable;
+    private int reachableCount;
+
+    public ReachabilityMap(GridCell[][] navCells, int startX, int startY) {
+        this(toWalkable(navCells), navCells.length, navCells[0].length, startX, startY);
+    }
+    
+    /**
+     * @param walkable indexed by {@code x * height + y}.
+     */
+    public ReachabilityMap(boolean[] walkable, int width, int height, int startX, int startY) {
+        this.width = width;
+        this.height = height;
+        reachable = new Bits(width * height);
+        reachableCount = 0;
+        
+        fill(walkable, startX, startY);
+    }
+    
+    private static boolean[] toWalkable(GridCell[][] navCells) {
+        int height = navCells[0].length;
+        boolean[] returnValue = new boolean[navCells.length * height];
+        
+        for (int x = 0; x < navCells.length; x++) {
+            for (int y = 0; y < height; y++) {
+                returnValue[x * height + y] = navCells[x][y].isWalkable();
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    private void fill(boolean[] walkable, int startX, int startY) {
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height || !walkable[startX * height + startY]) {
+            return;
+        }
+        
+        int[] stack = new int[width * height];
+        int top = 0;
+        int start = startX * height + startY;
+        reachable.set(start);
+        reachableCount++;
+        stack[top++] = start;
+        
+        while (top > 0) {
+            int cell = stack[--top];
+            int x = cell / height;
+            int y = cell % height;
+            
+            for (int direction = 0; direction < GridDirection.COUNT; direction++) {
+                int nextX = x + GridDirection.offsetX(direction);
+                int nextY = y + GridDirection.offsetY(direction);
+                if (nextX >= 0 && nextY >= 0 && nextX < width && nextY < height && walkable[nextX * height + nextY]) {
+                    int next = nextX * height + nextY;
+                    if (!reachable.get(next)) {
+                        reachable.set(next);
+                        reachableCount++;
+                        stack[top++] = next;
+                    }
+                }
+            }
+        }
+    }
+    
+    public boolean isReachable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && reachable.get(x * height + y);
+    }
+
+    /**
+     * The reachable cells indexed by {@code x * height + y}.
+     */
+    public Bits getBits() {
+        return reachable;
+    }
+
+    public int getReachableCount() {
+        return reachableCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.munchman.navigation;
+
+import com.badlogic.gdx.utils.Bits;
+
+/**
+ * Packed walkability of the level with a precomputed neighbour mask per cell,
+ * so movement and AI queries are a single array read. Cells outside the level
+ * are treated as blocked.
+ */
+public class WalkabilityMap {
+    private final static int DIRECTION_MASK = 0xF;
+    private final static int JUNCTION = 0x10;
+    private final static int HORIZONTAL = GridDirection.bit(GridDirection.RIGHT) | GridDirection.bit(GridDirection.LEFT);
+    private final static int VERTICAL = GridDirection.bit(GridDirection.UP) | GridDirection.bit(GridDirection.DOWN);
+    private final int width;
+    private final int height;
+    private final Bits walkable;
+    private final byte[] cells;
+
+    /**
+     * @param walkable indexed by {@code x * height + y}.
+     */
+    public WalkabilityMap(boolean[] walkable, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.walkable = new Bits(width * height);
+        cells = new byte[width * height];
+        
+        for (int i = 0; i < walkable.length; i++) {
+            if (walkable[i]) {
+                this.walkable.set(i);
+            }
+        }
+        
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int flags = 0;
+                for (int direction = 0; direction < GridDirection.COUNT; direction++) {
+                    if (isWalkable(x + GridDirection.offsetX(direction), y + GridDirection.offsetY(direction))) {
+                        flags |= GridDirection.bit(direction);
+                    }
+                }
+                
+                if ((flags & HORIZONTAL) != 0 && (flags & VERTICAL) != 0) {
+                    flags |= JUNCTION;
+                }
+                cells[x * height + y] = (byte) flags;
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+    
+    public boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && walkable.get(x * height + y);
+    }
+    
+    /**
+     * @return a {@link GridDirection#bit(int)} for each walkable neighbour of
+     * the cell.
+     */
+    public int getOpenDirections(int x, int y) {
+        int returnValue = 0;
+        
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            returnValue = cells[x * height + y] & DIRECTION_MASK;
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * @return true if the cell can be turned out of, i.e. it has both a
+     * horizontal and a vertical walkable neighbour.
+     */
+    public boolean isJunction(int x, int y) {
+        boolean returnValue = false;
+        
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            returnValue = (cells[x * height + y] & JUNCTION) != 0;
+        }
+        
+        return returnValue;
+    }
+}
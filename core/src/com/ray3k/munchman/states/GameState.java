@@ -31,33 +31,48 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.SkeletonData;
 import com.ray3k.munchman.Core;
 import com.ray3k.munchman.Entity;
 import com.ray3k.munchman.EntityManager;
 import com.ray3k.munchman.InputManager;
 import com.ray3k.munchman.State;
 import com.ray3k.munchman.ai.AI;
-import com.ray3k.munchman.ai.AggressiveAI;
-import com.ray3k.munchman.ai.CunningAI;
+import com.ray3k.munchman.ai.AIScheduler;
 import com.ray3k.munchman.ai.RandomAI;
 import com.ray3k.munchman.ai.RetreatAI;
 import com.ray3k.munchman.ai.ScaredAI;
 import com.ray3k.munchman.ai.SpawnAI;
-import com.ray3k.munchman.entities.DotEntity;
+import com.ray3k.munchman.entities.DotLayerEntity;
 import com.ray3k.munchman.entities.GhostEntity;
 import com.ray3k.munchman.entities.GhostPenEntity;
+import com.ray3k.munchman.entities.GhostSpawnerEntity;
+import com.ray3k.munchman.entities.PickupIndex;
 import com.ray3k.munchman.entities.PlayerEntity;
 import com.ray3k.munchman.entities.PowerBallEntity;
-import com.ray3k.munchman.entities.SpawnGhostTimerEntity;
-import com.ray3k.munchman.entities.WallEntity;
+import com.ray3k.munchman.entities.WallLayerEntity;
+import com.ray3k.munchman.levels.LevelData;
+import com.ray3k.munchman.levels.LevelMetadataCache;
+import com.ray3k.munchman.levels.LevelPack;
+import com.ray3k.munchman.levels.LevelReader;
+import com.ray3k.munchman.levels.PreparedLevel;
+import com.ray3k.munchman.levels.SpawnSchedule;
+import com.ray3k.munchman.navigation.DistanceField;
+import com.ray3k.munchman.navigation.GridDirection;
+import com.ray3k.munchman.navigation.NextHopTable;
+import com.ray3k.munchman.navigation.PathCache;
+import com.ray3k.munchman.navigation.ReachabilityMap;
+import com.ray3k.munchman.navigation.WalkabilityMap;
 import java.util.List;
 import org.xguzm.pathfinding.grid.GridCell;
 import org.xguzm.pathfinding.grid.NavigationGrid;
@@ -67,6 +82,8 @@ import org.xguzm.pathfinding.grid.finders.GridFinderOptions;
 public class GameState extends State {
     private String selectedCharacter;
     private FileHandle selectedLevel;
+    private LevelPack selectedPack;
+    private int selectedPackIndex;
     private int score;
     private static int highscore = 0;
     private OrthographicCamera gameCamera;
@@ -81,16 +98,29 @@ public class GameState extends State {
     private EntityManager entityManager;
     private Entity[][] grid;
     private GridCell[][] navCells;
+    private WalkabilityMap walkability;
     private NavigationGrid<GridCell> navGrid;
     private AStarGridFinder<GridCell> navFinder;
+    private DistanceField distanceField;
+    private NextHopTable nextHopTable;
+    private PathCache pathCache;
+    private ReachabilityMap reachability;
+    private boolean nextHopTableEnabled = true;
     private PlayerEntity playerEntity;
     private int ghostPenX;
     private int ghostPenY;
     private Array<GhostEntity> ghosts;
+    private PickupIndex pickupIndex;
+    private WallLayerEntity wallLayer;
     private boolean soundToggle;
+    private RandomXS128 random;
+    private AIScheduler aiScheduler;
+    private SpawnSchedule spawnSchedule;
+    private AnimationStateData ghostAnimationStateData;
     
     public GameState(Core core) {
         super(core);
+        aiScheduler = new AIScheduler();
     }
     
     @Override
@@ -98,86 +128,110 @@ public class GameState extends State {
         soundToggle = false;
         ghosts = new Array<GhostEntity>();
         score = 0;
+        random = new RandomXS128(MathUtils.random.nextLong());
+        aiScheduler.clear();
+        ghostAnimationStateData = null;
         
         inputManager = new InputManager(); 
         
-        uiCamera = new OrthographicCamera();
-        uiViewport = new ScreenViewport(uiCamera);
-        uiViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        uiViewport.apply();
-        
-        uiCamera.position.set(uiCamera.viewportWidth / 2, uiCamera.viewportHeight / 2, 0);
-        
-        gameCamera = new OrthographicCamera();
-        gameViewport = new ScreenViewport(gameCamera);
-        gameViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        gameViewport.apply();
-        
-        gameCamera.position.set(gameCamera.viewportWidth / 2, gameCamera.viewportHeight / 2, 0);
-        
-        skin = getCore().getAssetManager().get(Core.DATA_PATH + "/skin/munch-man-ui.json", Skin.class);
-        stage = new Stage(new ScreenViewport());
+        if (!getCore().isHeadless()) {
+            uiCamera = new OrthographicCamera();
+            uiViewport = new ScreenViewport(uiCamera);
+            uiViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            uiViewport.apply();
+
+            uiCamera.position.set(uiCamera.viewportWidth / 2, uiCamera.viewportHeight / 2, 0);
+
+            gameCamera = new OrthographicCamera();
+            gameViewport = new ScreenViewport(gameCamera);
+            gameViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            gameViewport.apply();
+
+            gameCamera.position.set(gameCamera.viewportWidth / 2, gameCamera.viewportHeight / 2, 0);
+
+            skin = getCore().getAssetManager().get(Core.DATA_PATH + "/skin/munch-man-ui.json", Skin.class);
+            stage = new Stage(new ScreenViewport());
+
+            InputMultiplexer inputMultiplexer = new InputMultiplexer();
+            inputMultiplexer.addProcessor(inputManager);
+            inputMultiplexer.addProcessor(stage);
+            Gdx.input.setInputProcessor(inputMultiplexer);
+
+            table = new Table();
+            table.setFillParent(true);
+            stage.addActor(table);
+        }
         
-        InputMultiplexer inputMultiplexer = new InputMultiplexer();
-        inputMultiplexer.addProcessor(inputManager);
-        inputMultiplexer.addProcessor(stage);
-        Gdx.input.setInputProcessor(inputMultiplexer);
+        entityManager = new EntityManager();
         
-        table = new Table();
-        table.setFillParent(true);
-        stage.addActor(table);
+        if (!getCore().isHeadless()) {
+            createStageElements();
+        }
+        loadLevel(prepareLevel());
+    }
+    
+    /**
+     * Takes the selected level from the preloader if it was prepared in the
+     * background, otherwise prepares it now.
+     */
+    private PreparedLevel prepareLevel() {
+        PreparedLevel returnValue = null;
         
-        entityManager = new EntityManager();
+        if (selectedPack != null) {
+            String key = LevelMetadataCache.key(selectedPack.getFile(), selectedPack.getName(selectedPackIndex));
+            returnValue = getCore().getLevelPreloader().take(key, nextHopTableEnabled);
+            if (returnValue == null) {
+                returnValue = PreparedLevel.prepare(selectedPack.getLevel(selectedPackIndex), nextHopTableEnabled);
+            }
+        } else if (selectedLevel != null) {
+            returnValue = getCore().getLevelPreloader().take(LevelMetadataCache.key(selectedLevel), nextHopTableEnabled);
+            if (returnValue == null) {
+                returnValue = PreparedLevel.prepare(LevelReader.read(selectedLevel), nextHopTableEnabled);
+            }
+        }
         
-        createStageElements();
-        loadLevel(selectedLevel);
+        return returnValue;
     }
     
-    private void loadLevel(FileHandle fileHandle) {
-        if (fileHandle != null) {
-            DotEntity.dotCount = 0;
-            Json json = new Json();
-            String[][] values = json.fromJson(String[][].class, fileHandle);
+    private void loadLevel(PreparedLevel prepared) {
+        if (prepared != null) {
+            LevelData level = prepared.getLevel();
+            int width = level.getWidth();
+            int height = level.getHeight();
 
-            grid = new Entity[values.length][values[0].length];
-            navCells = new GridCell[values.length][values[0].length];
+            grid = new Entity[width][height];
+            navCells = prepared.getNavCells();
+            walkability = prepared.getWalkability();
+            pickupIndex = new PickupIndex(width, height);
 
             Array<Color> levelColors = new Array<Color>(new Color[]{Color.RED, Color.PURPLE, Color.YELLOW, Color.CYAN, Color.GREEN, Color.ORANGE, Color.PINK, Color.VIOLET});
             Color levelColor = levelColors.random();
 
-            int playerX = 0;
-            int playerY = 0;
-
-            for (int x = 0; x < values.length; x++) {
-                for (int y = 0; y < values[x].length; y++) {
-                    if (navCells[x][y] == null) {
-                        navCells[x][y] = new GridCell(x, y, true);
-                    }
+            wallLayer = new WallLayerEntity(this);
 
-                    if (values[x][y] != null) {
-                        if (values[x][y].startsWith("WALL")) {
-                            WallEntity wallEntity = new WallEntity(this);
-                            wallEntity.setPosition(x * LevelDesignerState.GRID_DIMENSION, y * LevelDesignerState.GRID_DIMENSION);
-                            wallEntity.setSkin(values[x][y].substring(4));
-                            wallEntity.setColor(levelColor);
-                            grid[x][y] = wallEntity;
-                            navCells[x][y] = new GridCell(x, y, false);
-                        } else if (values[x][y].equals("BALL")) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    byte type = level.getType(x, y);
+                    if (type != LevelData.EMPTY) {
+                        if (type == LevelData.WALL) {
+                            wallLayer.addWall(x, y, level.getWallSkin(x, y));
+                            grid[x][y] = wallLayer;
+                        } else if (type == LevelData.BALL) {
                             PowerBallEntity entity = new PowerBallEntity(this);
                             entity.setPosition(x * LevelDesignerState.GRID_DIMENSION, y * LevelDesignerState.GRID_DIMENSION);
                             grid[x][y] = entity;
-                        } else if (values[x][y].equals("GHOST_PEN")) {
+                            pickupIndex.add(x, y, PickupIndex.BALL, entity);
+                        } else if (type == LevelData.GHOST_PEN) {
                             GhostPenEntity entity = new GhostPenEntity(this);
                             entity.setPosition(x * LevelDesignerState.GRID_DIMENSION, y * LevelDesignerState.GRID_DIMENSION);
                             ghostPenX = x + 3;
                             ghostPenY = y + 4;
-                            for (int i = x; i < x + 6 && i < grid.length; i++) {
-                                for (int j = y; j < y + 4 && j < grid[0].length; j++) {
+                            for (int i = x; i < x + LevelData.GHOST_PEN_WIDTH && i < grid.length; i++) {
+                                for (int j = y; j < y + LevelData.GHOST_PEN_HEIGHT && j < grid[0].length; j++) {
                                     grid[i][j] = entity;
-                                    navCells[i][j] = new GridCell(i, j, false);
                                 }
                             }
-                        } else if (values[x][y].equals("MUNCH_MAN")) {
+                        } else if (type == LevelData.MUNCH_MAN) {
                             playerEntity = new PlayerEntity(this);
                             if (selectedCharacter.equals("ms-munch-man")) {
                                 playerEntity.setSkin("MsMunchman");
@@ -185,42 +239,68 @@ public class GameState extends State {
                             playerEntity.setPosition(x * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f, y * LevelDesignerState.GRID_DIMENSION + LevelDesignerState.GRID_DIMENSION / 2.0f);
                             playerEntity.setTargetGridX(x);
                             playerEntity.setTargetGridY(y);
-                            playerX = x;
-                            playerY = y;
                             grid[x][y] = playerEntity;
                         }
                     }
                 }
             }
 
-            navGrid = new NavigationGrid<GridCell>(navCells, true);
+            if (!getCore().isHeadless()) {
+                wallLayer.bake(width, height, levelColor);
+            }
+
+            navGrid = prepared.getNavGrid();
             GridFinderOptions opt = new GridFinderOptions();
             opt.allowDiagonal = false;
             opt.isYDown = false;
             navFinder = new AStarGridFinder<GridCell>(GridCell.class, opt);
-
-            for (int x = 0; x < values.length; x++) {
-                for (int y = 0; y < values[x].length; y++) {
+            
+            distanceField = prepared.getDistanceField();
+            playerEntity.addPlayerGridListener(distanceField);
+            nextHopTable = prepared.getNextHopTable();
+            if (nextHopTable == null && PathCache.supports(width * height)) {
+                pathCache = new PathCache(width * height, PathCache.DEFAULT_CAPACITY);
+            } else {
+                pathCache = null;
+            }
+            reachability = prepared.getReachability();
+            
+            new DotLayerEntity(this);
+            
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
                     if (grid[x][y] == null) {
-                        List<GridCell> path = navFinder.findPath(playerX, playerY, x, y, navGrid);
-
-                        if (path != null) {
-                            DotEntity entity = new DotEntity(this);
-                            entity.setPosition(x * LevelDesignerState.GRID_DIMENSION, y * LevelDesignerState.GRID_DIMENSION);
+                        if (reachability.isReachable(x, y)) {
+                            pickupIndex.add(x, y, PickupIndex.DOT, null);
                         }
                     }
                 }
             }
 
-            spawnGhost(new RandomAI(), "orange");
-            new SpawnGhostTimerEntity(this, 3, new AggressiveAI(), "red");
-            new SpawnGhostTimerEntity(this, 6, new CunningAI(), "blue");
-            new SpawnGhostTimerEntity(this, 9, new RandomAI(), "pink");
+            new GhostSpawnerEntity(this, spawnSchedule != null ? spawnSchedule : readSpawnSchedule());
             
-            gameCamera.position.set(grid.length * LevelDesignerState.GRID_DIMENSION / 2.0f, grid[0].length * LevelDesignerState.GRID_DIMENSION / 2.0f, 0);
+            if (gameCamera != null) {
+                gameCamera.position.set(grid.length * LevelDesignerState.GRID_DIMENSION / 2.0f, grid[0].length * LevelDesignerState.GRID_DIMENSION / 2.0f, 0);
+            }
         }
     } 
     
+    /**
+     * Reads the spawn schedule stored next to the selected level, falling back
+     * to the default waves.
+     */
+    private SpawnSchedule readSpawnSchedule() {
+        SpawnSchedule returnValue = SpawnSchedule.DEFAULT;
+        
+        if (selectedPack != null) {
+            returnValue = SpawnSchedule.readOrDefault(Gdx.files.local(Core.DATA_PATH + "/levels/" + selectedPack.getName(selectedPackIndex) + "." + SpawnSchedule.EXTENSION));
+        } else if (selectedLevel != null) {
+            returnValue = SpawnSchedule.readOrDefault(SpawnSchedule.fileFor(selectedLevel));
+        }
+        
+        return returnValue;
+    }
+    
     public void spawnGhost(AI primaryAI, String skin) {
         GhostEntity ghostEntity = new GhostEntity(this);
         ghostEntity.setPrimaryAI(primaryAI);
@@ -234,7 +314,7 @@ public class GameState extends State {
     public void makeGhostsScared() {
         for (GhostEntity ghost : ghosts) {
             if (!(ghost.getAi() instanceof RetreatAI) && !(ghost.getAi() instanceof SpawnAI)) {
-                ghost.setAi(new ScaredAI());
+                ghost.setAi(ScaredAI.INSTANCE);
                 ghost.setSkin("scared");
             }
         }
@@ -243,17 +323,61 @@ public class GameState extends State {
     public void makeGhostsRandom() {
         for (GhostEntity ghost : ghosts) {
             if (!(ghost.getAi() instanceof RetreatAI)) {
-                ghost.setAi(new RandomAI());
+                ghost.setAi(RandomAI.INSTANCE);
             } else {
-                ghost.setPrimaryAI(new RandomAI());
+                ghost.setPrimaryAI(RandomAI.INSTANCE);
             }
         }
     }
 
+    /**
+     * Seeds the random source of each ghost. It is itself seeded from
+     * MathUtils.random when the state starts so a seeded run replays the same
+     * game.
+     */
+    public RandomXS128 getRandom() {
+        return random;
+    }
+
+    public SpawnSchedule getSpawnSchedule() {
+        return spawnSchedule;
+    }
+
+    /**
+     * @param spawnSchedule replaces the waves of every level, or null to use
+     * the schedule of the selected level.
+     */
+    public void setSpawnSchedule(SpawnSchedule spawnSchedule) {
+        this.spawnSchedule = spawnSchedule;
+    }
+    
+    /**
+     * Animation mixes shared by every ghost of the current game.
+     */
+    public AnimationStateData getGhostAnimationStateData() {
+        if (ghostAnimationStateData == null) {
+            ghostAnimationStateData = new AnimationStateData(getCore().getAssetManager().get(Core.DATA_PATH + "/spine/ghost.json", SkeletonData.class));
+            ghostAnimationStateData.setDefaultMix(.25f);
+        }
+        return ghostAnimationStateData;
+    }
+
+    /**
+     * Queues ghost decisions under a per-tick time budget. See
+     * {@link AIScheduler#setBudgetMicros(long)}.
+     */
+    public AIScheduler getAiScheduler() {
+        return aiScheduler;
+    }
+
     public GridCell[][] getNavCells() {
         return navCells;
     }
 
+    public WalkabilityMap getWalkability() {
+        return walkability;
+    }
+
     public NavigationGrid<GridCell> getNavGrid() {
         return navGrid;
     }
@@ -261,6 +385,86 @@ public class GameState extends State {
     public AStarGridFinder<GridCell> getNavFinder() {
         return navFinder;
     }
+
+    public DistanceField getDistanceField() {
+        return distanceField;
+    }
+
+    public ReachabilityMap getReachability() {
+        return reachability;
+    }
+
+    public NextHopTable getNextHopTable() {
+        return nextHopTable;
+    }
+
+    /**
+     * @return the cache of path finder results, or null if the level has a
+     * next hop table.
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    public boolean isNextHopTableEnabled() {
+        return nextHopTableEnabled;
+    }
+
+    public void setNextHopTableEnabled(boolean nextHopTableEnabled) {
+        this.nextHopTableEnabled = nextHopTableEnabled;
+    }
+    
+    /**
+     * Returns the {@link GridDirection} of the first step on a path between two
+     * cells, or {@link GridDirection#NONE} if the cells are the same or not
+     * connected. Uses the next hop table when the level has one, otherwise
+     * the path finder with its results cached.
+     */
+    public int findNextDirection(int fromX, int fromY, int toX, int toY) {
+        int returnValue = GridDirection.NONE;
+        
+        if (nextHopTable != null) {
+            returnValue = nextHopTable.getNextDirection(fromX, fromY, toX, toY);
+            if (returnValue == NextHopTable.HERE) {
+                returnValue = GridDirection.NONE;
+            }
+        } else if (pathCache != null) {
+            int height = navCells[0].length;
+            int from = fromX * height + fromY;
+            int to = toX * height + toY;
+            returnValue = pathCache.get(from, to);
+            if (returnValue == PathCache.MISSING) {
+                returnValue = findPathDirection(fromX, fromY, toX, toY);
+                pathCache.put(from, to, returnValue);
+            }
+        } else {
+            returnValue = findPathDirection(fromX, fromY, toX, toY);
+        }
+        
+        return returnValue;
+    }
+    
+    private int findPathDirection(int fromX, int fromY, int toX, int toY) {
+        int returnValue = GridDirection.NONE;
+        
+        List<GridCell> path = navFinder.findPath(fromX, fromY, toX, toY, navGrid);
+        if (path != null && path.size() > 0) {
+            int targetGridX = path.get(0).x;
+            int targetGridY = path.get(0).y;
+
+            if (fromX < targetGridX) {
+                returnValue = GridDirection.RIGHT;
+            } else if (fromX > targetGridX) {
+                returnValue = GridDirection.LEFT;
+            } else if (fromY < targetGridY) {
+                returnValue = GridDirection.UP;
+            } else if (fromY > targetGridY) {
+                returnValue = GridDirection.DOWN;
+            }
+        }
+        
+        return returnValue;
+    }
     
     private void createStageElements() {
         Table root = new Table();
@@ -272,14 +476,14 @@ public class GameState extends State {
     }
     
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         
         gameCamera.update();
         getCore().getTwoColorPolygonBatch().setProjectionMatrix(gameCamera.combined);
         getCore().getTwoColorPolygonBatch().begin();
-        entityManager.draw(spriteBatch, delta);
+        entityManager.draw(spriteBatch, alpha);
         getCore().getTwoColorPolygonBatch().end();
         
         stage.draw();
@@ -288,17 +492,29 @@ public class GameState extends State {
     @Override
     public void act(float delta) {
         entityManager.act(delta);
+        aiScheduler.run(nextHopTable != null);
+        inputManager.clearJustPressed();
         
-        stage.act(delta);
+        if (stage != null) {
+            stage.act(delta);
+        }
     }
 
     @Override
     public void dispose() {
+        aiScheduler.dispose();
     }
 
     @Override
     public void stop() {
-        stage.dispose();
+        if (wallLayer != null) {
+            wallLayer.dispose();
+            wallLayer = null;
+        }
+        if (stage != null) {
+            stage.dispose();
+            stage = null;
+        }
     }
     
     @Override
@@ -325,6 +541,24 @@ public class GameState extends State {
 
     public void setSelectedLevel(FileHandle selectedLevel) {
         this.selectedLevel = selectedLevel;
+        selectedPack = null;
+    }
+    
+    /**
+     * Selects a level from a level pack instead of a file.
+     */
+    public void setSelectedLevel(LevelPack selectedPack, int selectedPackIndex) {
+        this.selectedPack = selectedPack;
+        this.selectedPackIndex = selectedPackIndex;
+        selectedLevel = null;
+    }
+
+    public LevelPack getSelectedPack() {
+        return selectedPack;
+    }
+
+    public int getSelectedPackIndex() {
+        return selectedPackIndex;
     }
 
     public EntityManager getEntityManager() {
@@ -341,7 +575,9 @@ public class GameState extends State {
 
     public void setScore(int score) {
         this.score = score;
-        scoreLabel.setText(Integer.toString(score));
+        if (scoreLabel != null) {
+            scoreLabel.setText(Integer.toString(score));
+        }
         if (score > highscore) {
             highscore = score;
         }
@@ -349,7 +585,9 @@ public class GameState extends State {
     
     public void addScore(int score) {
         this.score += score;
-        scoreLabel.setText(Integer.toString(this.score));
+        if (scoreLabel != null) {
+            scoreLabel.setText(Integer.toString(this.score));
+        }
         if (this.score > highscore) {
             highscore = this.score;
         }
@@ -359,6 +597,14 @@ public class GameState extends State {
         return grid;
     }
 
+    public PickupIndex getPickupIndex() {
+        return pickupIndex;
+    }
+
+    public Array<GhostEntity> getGhosts() {
+        return ghosts;
+    }
+
     public int getGhostPenX() {
         return ghostPenX;
     }
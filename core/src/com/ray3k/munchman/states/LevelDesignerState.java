@@ -46,14 +46,16 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.ui.TextField;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
-import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.ray3k.munchman.Core;
 import com.ray3k.munchman.EntityManager;
 import com.ray3k.munchman.InputManager;
 import com.ray3k.munchman.State;
+import com.ray3k.munchman.levels.LevelData;
 import com.ray3k.munchman.levels.LevelElement;
+import com.ray3k.munchman.levels.LevelReader;
+import com.ray3k.munchman.levels.LevelWriter;
 
 public class LevelDesignerState extends State {
     private OrthographicCamera camera;
@@ -70,6 +72,7 @@ public class LevelDesignerState extends State {
     private boolean inputFlag;
     private boolean dialogUp;
     private TextButton saveButton;
+    private boolean binaryFormat = true;
     
     private static enum Mode {
        GHOST_PEN, WALLS, MUNCHMAN, POWER_BALLS
@@ -218,38 +221,44 @@ public class LevelDesignerState extends State {
         FileHandle parent = new FileHandle(Core.DATA_PATH + "/levels");
         parent.mkdirs();
         
-        FileHandle saveFile = parent.child(name + ".lvl");
+        FileHandle saveFile = parent.child(name + "." + (binaryFormat ? LevelReader.BINARY_EXTENSION : LevelReader.JSON_EXTENSION));
         
-        String[][] gridValues = new String[grid.length][grid[0].length];
+        LevelData level = new LevelData(grid.length, grid[0].length);
         
         for (int x = 0; x < grid.length; x++) {
             for (int y = 0; y < grid[x].length; y++) {
                 if (grid[x][y] != null) {
-                    String value = grid[x][y].getMode().toString();
-                    
-                    if (grid[x][y].getMode() == LevelElement.Mode.WALL) {
-                        value += grid[x][y].getSkeleton().getSkin().getName();
+                    switch (grid[x][y].getMode()) {
+                        case WALL:
+                            level.setCell(x, y, LevelData.encodeWall(grid[x][y].getSkeleton().getSkin().getName()));
+                            break;
+                        case BALL:
+                            level.setCell(x, y, LevelData.BALL);
+                            break;
+                        case GHOST_PEN:
+                            level.setCell(x, y, LevelData.GHOST_PEN);
+                            break;
+                        case MUNCH_MAN:
+                            level.setCell(x, y, LevelData.MUNCH_MAN);
+                            break;
                     }
-                    
-                    gridValues[x][y] = value;
                 }
             }
         }
         
-        Json json = new Json();
-        saveFile.writeString(json.toJson(gridValues), false);
+        LevelWriter.write(level, saveFile);
         getCore().getStateManager().loadState("menu");
     }
     
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         
         camera.update();
         getCore().getTwoColorPolygonBatch().setProjectionMatrix(camera.combined);
         getCore().getTwoColorPolygonBatch().begin();
-        entityManager.draw(spriteBatch, delta);
+        entityManager.draw(spriteBatch, alpha);
         getCore().getTwoColorPolygonBatch().end();
         
         stage.draw();
@@ -476,4 +485,16 @@ public class LevelDesignerState extends State {
     public InputManager getInputManager() {
         return inputManager;
     }
+
+    public boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    /**
+     * @param binaryFormat true to save levels as .lvlb, false for the Json
+     * .lvl format.
+     */
+    public void setBinaryFormat(boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
 }
@@ -67,7 +67,7 @@ public class LoadingState extends State {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         stage.draw();
     }
 
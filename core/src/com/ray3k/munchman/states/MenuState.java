@@ -26,8 +26,13 @@ package com.ray3k.munchman.states;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.ButtonGroup;
@@ -39,21 +44,42 @@ import com.badlogic.gdx.scenes.scene2d.ui.ScrollPane;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.ray3k.munchman.Core;
 import com.ray3k.munchman.State;
+import com.ray3k.munchman.levels.LevelMetadata;
+import com.ray3k.munchman.levels.LevelMetadataCache;
+import com.ray3k.munchman.levels.LevelPack;
+import com.ray3k.munchman.levels.LevelReader;
 
 public class MenuState extends State {
+    private final static float PREVIEW_WIDTH = 256.0f;
+    private final static float PREVIEW_HEIGHT = 224.0f;
+    private final static float THUMBNAIL_WIDTH = 32.0f;
+    private final static float THUMBNAIL_HEIGHT = 28.0f;
     private Stage stage;
     private Skin skin;
     private Table root;
+    private ObjectMap<String, Label> levelInfoLabels;
+    private ObjectMap<String, Image> levelThumbnails;
+    private ObjectMap<String, Texture> levelThumbnailTextures;
+    private ScrollPane levelScrollPane;
+    private String selectedLevelKey;
+    private Image levelPreview;
+    private Texture levelPreviewTexture;
+    private Vector2 temp;
 
     public MenuState(Core core) {
         super(core);
+        temp = new Vector2();
     }
     
     @Override
@@ -166,7 +192,31 @@ public class MenuState extends State {
     }
     
     private void showLevelSelect() {
-        Array<FileHandle> levels = new Array<FileHandle>(Gdx.files.local(Core.DATA_PATH + "/levels/").list());
+        final LevelPack levelPack = getCore().getLevelPack();
+        final FileHandle levelPackFile = Gdx.files.local(Core.LEVEL_PACK_PATH);
+        FileHandle[] files = Gdx.files.local(Core.DATA_PATH + "/levels/").list();
+        ObjectSet<String> binaryNames = new ObjectSet<String>();
+        for (FileHandle file : files) {
+            if (file.extension().equalsIgnoreCase(LevelReader.BINARY_EXTENSION)) {
+                binaryNames.add(file.nameWithoutExtension());
+            }
+        }
+        
+        // A loose file newer than the pack was saved since packing, so it
+        // replaces the pack entry of the same name.
+        Array<FileHandle> levels = new Array<FileHandle>();
+        ObjectMap<String, FileHandle> overrides = new ObjectMap<String, FileHandle>();
+        for (FileHandle file : files) {
+            String name = file.nameWithoutExtension();
+            if (file.extension().equalsIgnoreCase(LevelReader.BINARY_EXTENSION) || file.extension().equalsIgnoreCase(LevelReader.JSON_EXTENSION) && !binaryNames.contains(name)) {
+                if (levelPack == null || levelPack.indexOf(name) == -1) {
+                    levels.add(file);
+                } else if (file.lastModified() > levelPackFile.lastModified()) {
+                    levels.add(file);
+                    overrides.put(name, file);
+                }
+            }
+        }
         
         Dialog dialog = new Dialog("", skin) {
             @Override
@@ -183,36 +233,241 @@ public class MenuState extends State {
         
         dialog.getContentTable().row();
         Table table = new Table();
+        table.defaults().left();
+        disposeThumbnails();
+        levelInfoLabels = new ObjectMap<String, Label>();
+        levelThumbnails = new ObjectMap<String, Image>();
+        levelThumbnailTextures = new ObjectMap<String, Texture>();
+        levelScrollPane = null;
+        selectedLevelKey = null;
+        levelPreview = null;
         
-        ButtonGroup buttonGroup = new ButtonGroup();
-        for (FileHandle file : levels) {
-            table.row();
-            ImageTextButton imageTextButton = new ImageTextButton(file.nameWithoutExtension(), skin, "list");
-            buttonGroup.add(imageTextButton);
-            table.add(imageTextButton);
-            
-            final FileHandle level = file;
-            imageTextButton.addListener(new ChangeListener() {
-                @Override
-                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                    ((GameState)getCore().getStateManager().getState("game")).setSelectedLevel(level);
+        ButtonGroup<ImageTextButton> buttonGroup = new ButtonGroup<ImageTextButton>();
+        if (levelPack != null) {
+            for (int i = 0; i < levelPack.size(); i++) {
+                FileHandle override = overrides.get(levelPack.getName(i));
+                if (override != null) {
+                    addLevelButton(table, buttonGroup, override);
+                } else {
+                    addLevelButton(table, buttonGroup, levelPack, i);
                 }
-            });
+            }
         }
         
-        ScrollPane scrollPane = new ScrollPane(table, skin);
-        scrollPane.setFadeScrollBars(false);
-        dialog.getContentTable().add(scrollPane).grow();
+        for (FileHandle file : levels) {
+            if (!overrides.containsKey(file.nameWithoutExtension())) {
+                addLevelButton(table, buttonGroup, file);
+            }
+        }
+        
+        levelScrollPane = new ScrollPane(table, skin);
+        levelScrollPane.setFadeScrollBars(false);
+        dialog.getContentTable().add(levelScrollPane).grow();
+        
+        levelPreview = new Image();
+        levelPreview.setScaling(Scaling.fit);
+        dialog.getContentTable().add(levelPreview).size(PREVIEW_WIDTH, PREVIEW_HEIGHT).pad(25.0f);
         
         dialog.button("OK");
         
         dialog.show(stage);
         
-        ((GameState)getCore().getStateManager().getState("game")).setSelectedLevel(levels.first());
+        if (levelPack != null && levelPack.size() > 0 && overrides.containsKey(levelPack.getName(0))) {
+            FileHandle override = overrides.get(levelPack.getName(0));
+            selectLevel(override, LevelMetadataCache.key(override));
+        } else if (levelPack != null && levelPack.size() > 0) {
+            selectLevel(levelPack, 0, LevelMetadataCache.key(levelPackFile, levelPack.getName(0)));
+        } else {
+            selectLevel(levels.first(), LevelMetadataCache.key(levels.first()));
+        }
+        
+        getCore().getLevelMetadataCache().refresh(levels, levelPackFile, levelPack, new LevelMetadataCache.Listener() {
+            @Override
+            public void updated(LevelMetadata metadata) {
+                if (levelInfoLabels != null) {
+                    Label label = levelInfoLabels.get(metadata.getKey());
+                    if (label != null) {
+                        label.setText(describeLevel(metadata));
+                    }
+                    
+                    updateThumbnail(metadata);
+                }
+            }
+        });
+    }
+    
+    private void addLevelButton(Table table, ButtonGroup<ImageTextButton> buttonGroup, final FileHandle level) {
+        final String key = LevelMetadataCache.key(level);
+        addLevelButton(table, buttonGroup, level.nameWithoutExtension(), key).addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                selectLevel(level, key);
+            }
+        });
+    }
+    
+    private void addLevelButton(Table table, ButtonGroup<ImageTextButton> buttonGroup, final LevelPack levelPack, final int index) {
+        final String key = LevelMetadataCache.key(Gdx.files.local(Core.LEVEL_PACK_PATH), levelPack.getName(index));
+        addLevelButton(table, buttonGroup, levelPack.getName(index), key).addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                selectLevel(levelPack, index, key);
+            }
+        });
+    }
+    
+    private ImageTextButton addLevelButton(Table table, ButtonGroup<ImageTextButton> buttonGroup, String name, String key) {
+        table.row();
+        ImageTextButton imageTextButton = new ImageTextButton(name, skin, "list");
+        buttonGroup.add(imageTextButton);
+        table.add(imageTextButton);
+        
+        Image thumbnail = new Image();
+        thumbnail.setScaling(Scaling.fit);
+        table.add(thumbnail).size(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT).padLeft(25.0f);
+        levelThumbnails.put(key, thumbnail);
+        
+        LevelMetadata metadata = getCore().getLevelMetadataCache().get(key);
+        Label label = new Label(metadata == null ? "" : describeLevel(metadata), skin);
+        table.add(label).padLeft(25.0f);
+        levelInfoLabels.put(key, label);
+        
+        return imageTextButton;
+    }
+    
+    private String describeLevel(LevelMetadata metadata) {
+        return metadata.getWidth() + "x" + metadata.getHeight() + "  " + metadata.getDotCount() + " dots";
+    }
+    
+    /**
+     * Selects a level file and starts preparing it in the background.
+     */
+    private void selectLevel(FileHandle level, String key) {
+        GameState gameState = (GameState) getCore().getStateManager().getState("game");
+        gameState.setSelectedLevel(level);
+        getCore().getLevelPreloader().preload(level, gameState.isNextHopTableEnabled());
+        showMetadata(key);
+    }
+    
+    /**
+     * Selects a level from a pack and starts preparing it in the background.
+     */
+    private void selectLevel(LevelPack levelPack, int index, String key) {
+        GameState gameState = (GameState) getCore().getStateManager().getState("game");
+        gameState.setSelectedLevel(levelPack, index);
+        getCore().getLevelPreloader().preload(levelPack, index, gameState.isNextHopTableEnabled());
+        showMetadata(key);
+    }
+    
+    private void showMetadata(String key) {
+        selectedLevelKey = key;
+        LevelMetadata metadata = getCore().getLevelMetadataCache().get(key);
+        if (metadata != null) {
+            showPreview(metadata);
+        }
+    }
+    
+    /**
+     * Draws the selected level at full size into the preview. Only the
+     * selected level keeps a full-size texture.
+     */
+    private void showPreview(LevelMetadata metadata) {
+        Texture texture = createThumbnailTexture(metadata, metadata.getWidth(), metadata.getHeight());
+        levelPreview.setDrawable(new TextureRegionDrawable(new TextureRegion(texture)));
+        
+        if (levelPreviewTexture != null) {
+            levelPreviewTexture.dispose();
+        }
+        levelPreviewTexture = texture;
+    }
+    
+    /**
+     * Replaces the textures drawn from out of date metadata. A row thumbnail
+     * is dropped and recreated by {@link #createVisibleThumbnails()} if its
+     * row is on screen.
+     */
+    private void updateThumbnail(LevelMetadata metadata) {
+        Texture previous = levelThumbnailTextures.remove(metadata.getKey());
+        if (previous != null) {
+            levelThumbnails.get(metadata.getKey()).setDrawable(null);
+            previous.dispose();
+        }
+        
+        if (levelPreview != null && metadata.getKey().equals(selectedLevelKey)) {
+            showPreview(metadata);
+        }
+    }
+    
+    /**
+     * Creates the row thumbnails scrolled into view that don't have one yet,
+     * so opening the dialog doesn't upload a texture for every level.
+     */
+    private void createVisibleThumbnails() {
+        if (levelScrollPane == null || levelScrollPane.needsLayout()) {
+            return;
+        }
+        
+        LevelMetadataCache cache = getCore().getLevelMetadataCache();
+        for (ObjectMap.Entry<String, Image> entry : levelThumbnails.entries()) {
+            if (!levelThumbnailTextures.containsKey(entry.key) && isVisible(entry.value)) {
+                LevelMetadata metadata = cache.get(entry.key);
+                if (metadata != null) {
+                    Texture texture = createThumbnailTexture(metadata, (int) THUMBNAIL_WIDTH, (int) THUMBNAIL_HEIGHT);
+                    levelThumbnailTextures.put(entry.key, texture);
+                    entry.value.setDrawable(new TextureRegionDrawable(new TextureRegion(texture)));
+                }
+            }
+        }
+    }
+    
+    private boolean isVisible(Image thumbnail) {
+        thumbnail.localToAscendantCoordinates(levelScrollPane, temp.set(0.0f, 0.0f));
+        return temp.y + thumbnail.getHeight() > 0.0f && temp.y < levelScrollPane.getHeight();
+    }
+    
+    /**
+     * Draws the level's walls into a texture no larger than the given size,
+     * sampling one cell per pixel when the level is bigger.
+     */
+    private Texture createThumbnailTexture(LevelMetadata metadata, int maxWidth, int maxHeight) {
+        float scale = Math.min(1.0f, Math.min((float) maxWidth / metadata.getWidth(), (float) maxHeight / metadata.getHeight()));
+        int width = Math.max(1, (int) (metadata.getWidth() * scale));
+        int height = Math.max(1, (int) (metadata.getHeight() * scale));
+        
+        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.BLACK);
+        pixmap.fill();
+        pixmap.setColor(Color.ROYAL);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (metadata.isBlocked(x * metadata.getWidth() / width, y * metadata.getHeight() / height)) {
+                    pixmap.drawPixel(x, height - 1 - y);
+                }
+            }
+        }
+        
+        Texture returnValue = new Texture(pixmap);
+        pixmap.dispose();
+        
+        return returnValue;
+    }
+    
+    private void disposeThumbnails() {
+        if (levelThumbnailTextures != null) {
+            for (Texture texture : levelThumbnailTextures.values()) {
+                texture.dispose();
+            }
+            levelThumbnailTextures = null;
+        }
+        
+        if (levelPreviewTexture != null) {
+            levelPreviewTexture.dispose();
+            levelPreviewTexture = null;
+        }
     }
     
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         stage.draw();
@@ -221,6 +476,9 @@ public class MenuState extends State {
     @Override
     public void act(float delta) {
         stage.act(delta);
+        if (levelThumbnails != null) {
+            createVisibleThumbnails();
+        }
     }
 
     @Override
@@ -230,6 +488,10 @@ public class MenuState extends State {
 
     @Override
     public void stop() {
+        levelInfoLabels = null;
+        levelThumbnails = null;
+        levelScrollPane = null;
+        disposeThumbnails();
         stage.dispose();
     }
     
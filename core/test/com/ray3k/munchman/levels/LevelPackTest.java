@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelPackTest {
+    private final static int COUNT_OFFSET = 6;
+    private final static int FIRST_ENTRY = 10;
+    private FileHandle directory;
+    private FileHandle packFile;
+
+    @Before
+    public void setUp() throws IOException {
+        File file = File.createTempFile("levels", "");
+        file.delete();
+        file.mkdir();
+        directory = new FileHandle(file);
+        packFile = directory.child("levels." + LevelPack.EXTENSION);
+        
+        Array<String> names = new Array<String>();
+        Array<LevelData> levels = new Array<LevelData>();
+        for (int i = 0; i < 2; i++) {
+            LevelData level = new LevelData(5 + i, 4);
+            level.setCell(1, 1, LevelData.MUNCH_MAN);
+            names.add("level" + i);
+            levels.add(level);
+        }
+        LevelPack.write(packFile, names, levels);
+    }
+    
+    @After
+    public void tearDown() {
+        directory.deleteDirectory();
+    }
+    
+    @Test
+    public void roundTrip() {
+        LevelPack pack = LevelPack.open(packFile);
+        assertEquals(2, pack.size());
+        assertEquals(1, pack.indexOf("level1"));
+        assertEquals(6, pack.getLevel(1).getWidth());
+    }
+    
+    @Test
+    public void rejectsCountLargerThanFile() {
+        byte[] bytes = packFile.readBytes();
+        LevelWriter.writeInt(bytes, COUNT_OFFSET, Integer.MAX_VALUE);
+        assertRejected(bytes, "Invalid level pack count");
+    }
+    
+    @Test
+    public void rejectsNegativeCount() {
+        byte[] bytes = packFile.readBytes();
+        LevelWriter.writeInt(bytes, COUNT_OFFSET, -1);
+        assertRejected(bytes, "Invalid level pack count");
+    }
+    
+    @Test
+    public void rejectsTruncatedIndex() {
+        byte[] bytes = packFile.readBytes();
+        LevelWriter.writeShort(bytes, FIRST_ENTRY, 0xFFFF);
+        assertRejected(Arrays.copyOf(bytes, 40), "truncated");
+    }
+    
+    @Test
+    public void rejectsNegativeLength() {
+        byte[] bytes = packFile.readBytes();
+        int nameLength = "level0".length();
+        LevelWriter.writeInt(bytes, FIRST_ENTRY + 2 + nameLength + 4, -1);
+        assertRejected(bytes, "out of bounds");
+    }
+    
+    @Test
+    public void rejectsEntryThatOverflows() {
+        byte[] bytes = packFile.readBytes();
+        int nameLength = "level0".length();
+        LevelWriter.writeInt(bytes, FIRST_ENTRY + 2 + nameLength + 4, Integer.MAX_VALUE);
+        assertRejected(bytes, "out of bounds");
+    }
+    
+    private void assertRejected(byte[] bytes, String message) {
+        packFile.writeBytes(bytes, false);
+        try {
+            LevelPack.open(packFile);
+            fail("Expected the level pack to be rejected: " + message);
+        } catch (GdxRuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelReaderTest {
+    private FileHandle directory;
+    private LevelData level;
+
+    @Before
+    public void setUp() throws IOException {
+        File file = File.createTempFile("levels", "");
+        file.delete();
+        file.mkdir();
+        directory = new FileHandle(file);
+        
+        level = new LevelData(7, 5);
+        for (int x = 0; x < level.getWidth(); x++) {
+            level.setCell(x, 0, LevelData.encodeWall("horizontal"));
+            level.setCell(x, level.getHeight() - 1, LevelData.encodeWall("horizontal"));
+        }
+        level.setCell(1, 1, LevelData.MUNCH_MAN);
+        level.setCell(2, 2, LevelData.BALL);
+        level.setCell(5, 3, LevelData.encodeWall("single"));
+    }
+    
+    @After
+    public void tearDown() {
+        directory.deleteDirectory();
+    }
+    
+    @Test
+    public void binaryRoundTrip() {
+        FileHandle fileHandle = directory.child("level." + LevelReader.BINARY_EXTENSION);
+        LevelWriter.write(level, fileHandle);
+        
+        assertEquals(LevelReader.HEADER_SIZE + level.getWidth() * level.getHeight(), fileHandle.length());
+        assertLevelEquals(level, LevelReader.read(fileHandle));
+    }
+    
+    @Test
+    public void jsonRoundTrip() {
+        FileHandle fileHandle = directory.child("level." + LevelReader.JSON_EXTENSION);
+        LevelWriter.write(level, fileHandle);
+        
+        assertLevelEquals(level, LevelReader.read(fileHandle));
+    }
+    
+    @Test
+    public void convertedLevelMatchesJson() {
+        FileHandle fileHandle = directory.child("level." + LevelReader.JSON_EXTENSION);
+        LevelWriter.writeJson(level, fileHandle);
+        
+        FileHandle converted = LevelConverter.convert(fileHandle);
+        assertEquals(LevelReader.BINARY_EXTENSION, converted.extension());
+        assertLevelEquals(LevelReader.read(fileHandle), LevelReader.read(converted));
+    }
+    
+    @Test
+    public void readsAtOffset() {
+        byte[] binary = LevelWriter.toBinary(level);
+        byte[] bytes = new byte[binary.length + 3];
+        System.arraycopy(binary, 0, bytes, 3, binary.length);
+        
+        assertLevelEquals(level, LevelReader.readBinary(bytes, 3));
+    }
+    
+    @Test
+    public void rejectsTruncatedHeader() {
+        byte[] bytes = Arrays.copyOf(LevelWriter.toBinary(level), LevelReader.HEADER_SIZE - 1);
+        assertRejected(bytes, "too short");
+    }
+    
+    @Test
+    public void rejectsTruncatedCells() {
+        byte[] binary = LevelWriter.toBinary(level);
+        byte[] bytes = Arrays.copyOf(binary, binary.length - 1);
+        assertRejected(bytes, "Invalid level dimensions");
+    }
+    
+    @Test
+    public void rejectsBadMagic() {
+        byte[] bytes = LevelWriter.toBinary(level);
+        bytes[0] = 'X';
+        assertRejected(bytes, "Not a binary level");
+    }
+    
+    @Test
+    public void rejectsUnsupportedVersion() {
+        byte[] bytes = LevelWriter.toBinary(level);
+        LevelWriter.writeShort(bytes, 4, LevelReader.VERSION + 1);
+        assertRejected(bytes, "Unsupported level version");
+    }
+    
+    @Test
+    public void rejectsDimensionsThatOverflow() {
+        byte[] bytes = LevelWriter.toBinary(level);
+        LevelWriter.writeShort(bytes, 6, 0xFFFF);
+        LevelWriter.writeShort(bytes, 8, 0xFFFF);
+        assertRejected(bytes, "Invalid level dimensions");
+    }
+    
+    @Test
+    public void rejectsUnknownCell() {
+        byte[] bytes = LevelWriter.toBinary(level);
+        bytes[LevelReader.HEADER_SIZE] = LevelData.MUNCH_MAN + 1;
+        assertRejected(bytes, "Invalid cell");
+    }
+    
+    private static void assertLevelEquals(LevelData expected, LevelData actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int x = 0; x < expected.getWidth(); x++) {
+            assertArrayEquals(expected.toValues()[x], actual.toValues()[x]);
+        }
+    }
+    
+    private static void assertRejected(byte[] bytes, String message) {
+        try {
+            LevelReader.readBinary(bytes, 0);
+            fail("Expected the level to be rejected: " + message);
+        } catch (GdxRuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
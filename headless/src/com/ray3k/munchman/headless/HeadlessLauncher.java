@@ -0,0 +1,53 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.HeadlessFileHandle;
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Runs a level without a window.
+ * Usage: HeadlessLauncher level.lvl [input-script] [max-ticks] [seed]
+ */
+public class HeadlessLauncher {
+    private final static int DEFAULT_MAX_TICKS = 60 * 100;
+    
+    public static void main(String[] arg) {
+        if (arg.length < 1) {
+            System.err.println("Usage: HeadlessLauncher level.lvl [input-script] [max-ticks] [seed]");
+            System.exit(1);
+        }
+        
+        FileHandle level = new HeadlessFileHandle(arg[0], FileType.Absolute);
+        InputScript inputScript = arg.length > 1 && !arg[1].equals("-") ? InputScript.load(new HeadlessFileHandle(arg[1], FileType.Absolute)) : new InputScript();
+        int maxTicks = arg.length > 2 ? Integer.parseInt(arg[2]) : DEFAULT_MAX_TICKS;
+        long seed = arg.length > 3 ? Long.parseLong(arg[3]) : 0;
+        
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        new HeadlessApplication(new HeadlessSimulation(level, inputScript, maxTicks, seed), config);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.munchman.Core;
+import com.ray3k.munchman.ai.AIScheduler;
+import com.ray3k.munchman.entities.PickupIndex;
+import com.ray3k.munchman.states.GameState;
+
+/**
+ * Loads a level into a headless {@link Core} and steps the game state at the
+ * fixed update rate as fast as possible, then logs the result and exits.
+ */
+public class HeadlessSimulation extends ApplicationAdapter {
+    private final FileHandle level;
+    private final InputScript inputScript;
+    private final int maxTicks;
+    private final long seed;
+    private Core core;
+
+    public HeadlessSimulation(FileHandle level, InputScript inputScript, int maxTicks, long seed) {
+        this.level = level;
+        this.inputScript = inputScript;
+        this.maxTicks = maxTicks;
+        this.seed = seed;
+    }
+
+    @Override
+    public void create() {
+        MathUtils.random.setSeed(seed);
+        
+        core = new Core(true);
+        core.create();
+        
+        GameState gameState = (GameState) core.getStateManager().getState("game");
+        gameState.setSelectedCharacter("munch-man");
+        gameState.setSelectedLevel(level);
+        gameState.getAiScheduler().setBudgetMicros(AIScheduler.UNLIMITED);
+        
+        long loadStart = TimeUtils.nanoTime();
+        core.getStateManager().loadState("game");
+        long loadTime = TimeUtils.nanoTime() - loadStart;
+        
+        float delta = core.getTickDelta();
+        int tick = 0;
+        long start = TimeUtils.nanoTime();
+        while (tick < maxTicks && core.getStateManager().getLoadedState() == gameState) {
+            inputScript.apply(tick, gameState.getInputManager());
+            core.getStateManager().act(delta);
+            tick++;
+        }
+        long elapsed = TimeUtils.nanoTime() - start;
+        
+        String outcome;
+        if (core.getStateManager().getLoadedState() == gameState) {
+            outcome = "running";
+        } else if (gameState.getPickupIndex().getCount(PickupIndex.DOT) <= 0) {
+            outcome = "cleared";
+        } else {
+            outcome = "game over";
+        }
+        
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "level: " + level.path());
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "load: " + loadTime / 1000000.0 + " ms");
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "ticks: " + tick + " (" + tick * delta + " s simulated)");
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "wall time: " + elapsed / 1000000.0 + " ms");
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "throughput: " + (elapsed > 0 ? tick * 1000000000.0 / elapsed : 0) + " ticks/s");
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "ghosts: " + gameState.getGhosts().size);
+        Gdx.app.log(HeadlessSimulation.class.getSimpleName(), "score: " + gameState.getScore() + ", dots left: " + gameState.getPickupIndex().getCount(PickupIndex.DOT) + ", outcome: " + outcome);
+        
+        Gdx.app.exit();
+    }
+
+    @Override
+    public void dispose() {
+        if (core != null) {
+            core.dispose();
+        }
+    }
+}
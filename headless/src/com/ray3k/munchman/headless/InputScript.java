@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.munchman.headless;
+
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.ray3k.munchman.InputManager;
+
+/**
+ * Key presses to feed into a simulation, one per line as
+ * {@code <tick> <LEFT|RIGHT|UP|DOWN>}. Blank lines and lines starting with
+ * {@code #} are ignored. Entries must be sorted by tick.
+ */
+public class InputScript {
+    private final IntArray ticks;
+    private final IntArray keys;
+    private int index;
+
+    public InputScript() {
+        ticks = new IntArray();
+        keys = new IntArray();
+        index = 0;
+    }
+    
+    public static InputScript load(FileHandle fileHandle) {
+        InputScript returnValue = new InputScript();
+        String[] lines = fileHandle.readString().split("\\r?\\n");
+        
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.length() == 0 || line.startsWith("#")) {
+                continue;
+            }
+            
+            String[] parts = line.split("\\s+");
+            if (parts.length != 2) {
+                throw new GdxRuntimeException("Invalid input script line " + (i + 1) + ": " + line);
+            }
+            
+            returnValue.add(Integer.parseInt(parts[0]), parseKey(parts[1]));
+        }
+        
+        return returnValue;
+    }
+    
+    private static int parseKey(String name) {
+        if (name.equalsIgnoreCase("LEFT")) {
+            return Keys.LEFT;
+        } else if (name.equalsIgnoreCase("RIGHT")) {
+            return Keys.RIGHT;
+        } else if (name.equalsIgnoreCase("UP")) {
+            return Keys.UP;
+        } else if (name.equalsIgnoreCase("DOWN")) {
+            return Keys.DOWN;
+        } else {
+            throw new GdxRuntimeException("Unknown key in input script: " + name);
+        }
+    }
+    
+    public void add(int tick, int key) {
+        ticks.add(tick);
+        keys.add(key);
+    }
+    
+    /**
+     * Presses every key scheduled for the given tick.
+     */
+    public void apply(int tick, InputManager inputManager) {
+        while (index < ticks.size && ticks.get(index) <= tick) {
+            inputManager.keyDown(keys.get(index));
+            inputManager.keyUp(keys.get(index));
+            index++;
+        }
+    }
+    
+    public void reset() {
+        index = 0;
+    }
+}